@@ -1,11 +1,653 @@
 package io.github.the_sdet.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.the_sdet.logger.Log;
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
 /**
- * This class handles all API related Utilities and Helper methods
+ * This class handles all API related Utilities and Helper methods. All requests
+ * made through it share one pooled, keep-alive HTTP connection manager, so
+ * consecutive calls to the same host reuse warm TCP/TLS connections instead of
+ * opening a new one per request. Request specifications are built once per base
+ * URI and reused as templates for every request.
  *
  * @author Pabitra Swain (contact.the.sdet@gmail.com)
  */
 @SuppressWarnings("unused")
 public class APIUtils {
-  // To be Done
+  private static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 200;
+  private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 50;
+  private static final ConcurrentMap<String, RequestSpecification> specifications = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, RequestSpecification> customSpecifications = new ConcurrentHashMap<>();
+  // RestAssured 5 still requires an AbstractHttpClient, hence the deprecated
+  // HttpClient 4.x classes
+  @SuppressWarnings("deprecation")
+  private static volatile PoolingClientConnectionManager connectionManager;
+  @SuppressWarnings("deprecation")
+  private static volatile DefaultHttpClient httpClient;
+  private static volatile RestAssuredConfig config;
+  private static AsyncAPIClient asyncClient;
+  private static volatile HttpResponseCache responseCache;
+  private static volatile RetryPolicy retryPolicy;
+  private static volatile CircuitBreaker circuitBreaker;
+  private static final ThreadLocal<Boolean> retrying = ThreadLocal.withInitial(() -> false);
+
+  /**
+   * Applies the response cache, if enabled. Runs after all other filters so
+   * that the Authorization header set by authentication filters is part of the
+   * cache key.
+   */
+  private static final OrderedFilter RESPONSE_CACHE_FILTER = new OrderedFilter() {
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+        FilterContext context) {
+      HttpResponseCache cache = responseCache;
+      return cache == null
+          ? context.next(requestSpec, responseSpec)
+          : cache.filter(requestSpec, responseSpec, context);
+    }
+
+    @Override
+    public int getOrder() {
+      return LOWEST_PRECEDENCE;
+    }
+  };
+
+  static {
+    configureConnectionPool(DEFAULT_MAX_TOTAL_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+  }
+
+  /**
+   * This method (re)creates the shared connection pool. Connections of the
+   * previous pool are closed and cached request specifications are rebuilt on
+   * next use, keeping the settings registered with
+   * {@link #setRequestSpecification(String, RequestSpecBuilder)}.
+   *
+   * @param maxTotalConnections
+   *            maximum number of connections across all hosts
+   * @param maxConnectionsPerRoute
+   *            default maximum number of connections per host
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @SuppressWarnings("deprecation")
+  public static synchronized void configureConnectionPool(int maxTotalConnections, int maxConnectionsPerRoute) {
+    PoolingClientConnectionManager previous = connectionManager;
+    connectionManager = new PoolingClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotalConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+    httpClient = new DefaultHttpClient(connectionManager);
+    DefaultHttpClient client = httpClient;
+    config = RestAssuredConfig.config().httpClient(
+        HttpClientConfig.httpClientConfig().reuseHttpClientInstance().httpClientFactory(() -> client));
+    specifications.clear();
+    if (previous != null)
+      previous.shutdown();
+    Log.debug("HTTP connection pool configured: max total " + maxTotalConnections + ", max per route "
+        + maxConnectionsPerRoute);
+  }
+
+  /**
+   * This method sets the maximum number of pooled connections to one host
+   *
+   * @param baseUri
+   *            base URI of the host, e.g. https://api.example.com
+   * @param maxConnections
+   *            maximum number of connections to the host
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static synchronized void setMaxConnectionsPerRoute(String baseUri, int maxConnections) {
+    connectionManager.setMaxPerRoute(toRoute(baseUri), maxConnections);
+  }
+
+  /**
+   * This method returns the shared RestAssured configuration which routes
+   * requests through the connection pool. Use it when building requests by hand,
+   * e.g. {@code given().config(APIUtils.getConfig())}.
+   *
+   * @return RestAssuredConfig object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static RestAssuredConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * This method returns the shared request specification for a base URI,
+   * building it on first use
+   *
+   * @param baseUri
+   *            base URI, e.g. https://api.example.com
+   * @return RequestSpecification to be used as template, e.g. with
+   *         {@code given().spec(...)}
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static RequestSpecification getRequestSpecification(String baseUri) {
+    return specifications.computeIfAbsent(baseUri, uri -> {
+      RequestSpecBuilder builder = new RequestSpecBuilder();
+      RequestSpecification custom = customSpecifications.get(uri);
+      if (custom != null)
+        builder.addRequestSpecification(custom);
+      return build(builder, uri);
+    });
+  }
+
+  /**
+   * This method registers a customised request specification for a base URI,
+   * e.g. with default headers or authentication, so it is reused by every
+   * request to that base URI
+   *
+   * @param baseUri
+   *            base URI, e.g. https://api.example.com
+   * @param builder
+   *            builder pre-configured with the common settings
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void setRequestSpecification(String baseUri, RequestSpecBuilder builder) {
+    customSpecifications.put(baseUri, builder.setBaseUri(baseUri).build());
+    specifications.remove(baseUri);
+  }
+
+  /**
+   * This method starts a new request based on the shared specification of a base
+   * URI
+   *
+   * @param baseUri
+   *            base URI, e.g. https://api.example.com
+   * @return new RequestSpecification
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static RequestSpecification request(String baseUri) {
+    return RestAssured.given().spec(getRequestSpecification(baseUri));
+  }
+
+  /**
+   * This method sends a GET request
+   *
+   * @param baseUri
+   *            base URI, e.g. https://api.example.com
+   * @param path
+   *            resource path
+   * @return Response object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Response get(String baseUri, String path) {
+    return request(baseUri).get(path);
+  }
+
+  /**
+   * This method sends a GET request with headers
+   *
+   * @param baseUri
+   *            base URI, e.g. https://api.example.com
+   * @param path
+   *            resource path
+   * @param headers
+   *            request headers
+   * @return Response object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Response get(String baseUri, String path, Map<String, ?> headers) {
+    return request(baseUri).headers(headers).get(path);
+  }
+
+  /**
+   * This method sends a POST request with a JSON body
+   *
+   * @param baseUri
+   *            base URI, e.g. https://api.example.com
+   * @param path
+   *            resource path
+   * @param jsonBody
+   *            JSON request body
+   * @return Response object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Response post(String baseUri, String path, String jsonBody) {
+    return request(baseUri).contentType("application/json").body(jsonBody).post(path);
+  }
+
+  /**
+   * This method sends a PUT request with a JSON body
+   *
+   * @param baseUri
+   *            base URI, e.g. https://api.example.com
+   * @param path
+   *            resource path
+   * @param jsonBody
+   *            JSON request body
+   * @return Response object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Response put(String baseUri, String path, String jsonBody) {
+    return request(baseUri).contentType("application/json").body(jsonBody).put(path);
+  }
+
+  /**
+   * This method sends a DELETE request
+   *
+   * @param baseUri
+   *            base URI, e.g. https://api.example.com
+   * @param path
+   *            resource path
+   * @return Response object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Response delete(String baseUri, String path) {
+    return request(baseUri).delete(path);
+  }
+
+  /**
+   * This method returns the shared non-blocking client for fan-out requests,
+   * creating it on first use
+   *
+   * @return AsyncAPIClient object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static synchronized AsyncAPIClient getAsyncClient() {
+    if (asyncClient == null)
+      asyncClient = new AsyncAPIClient();
+    return asyncClient;
+  }
+
+  /**
+   * This method downloads a response body to a file without buffering it in
+   * memory, computing its SHA-256 digest on the way, see
+   * {@link ResponseStreamer}
+   *
+   * @param uri
+   *            full request URI
+   * @param headers
+   *            request headers
+   * @param filePath
+   *            file to write the body to
+   * @return ResponseStreamer.Result with status, size and digest
+   * @throws IOException
+   *             if the download fails or the status is not 2xx
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static ResponseStreamer.Result downloadToFile(String uri, Map<String, String> headers, String filePath)
+      throws IOException {
+    return new ResponseStreamer(getAsyncClient().httpClient()).toFile(streamingRequest(uri, headers),
+        Path.of(filePath));
+  }
+
+  /**
+   * This method streams the elements of a large JSON response body matching a
+   * path to a consumer without buffering the body, computing its SHA-256
+   * digest on the way, see {@link ResponseStreamer}
+   *
+   * @param uri
+   *            full request URI
+   * @param headers
+   *            request headers
+   * @param elementPath
+   *            element path, e.g. $.items[*]
+   * @param consumer
+   *            receives each matching element
+   * @return ResponseStreamer.Result with status, size, digest and element count
+   * @throws IOException
+   *             if the request fails, the status is not 2xx or the body is not
+   *             valid JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static ResponseStreamer.Result streamJsonElements(String uri, Map<String, String> headers,
+      String elementPath, Consumer<JsonNode> consumer) throws IOException {
+    return new ResponseStreamer(getAsyncClient().httpClient()).toJsonElements(streamingRequest(uri, headers),
+        elementPath, consumer);
+  }
+
+  /**
+   * This method sends a request until its response meets a condition, backing
+   * off exponentially between attempts, see {@link Poller}
+   *
+   * @param request
+   *            sends the request, e.g. {@code () -> APIUtils.get(baseUri, "/jobs/42")}
+   * @param condition
+   *            condition on the response
+   * @param timeout
+   *            maximum time to poll
+   * @return Poller.Result with the response, attempts and time to success
+   * @throws AssertionError
+   *             if the condition is not met in time
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Poller.Result pollUntil(Supplier<Response> request, Predicate<Response> condition,
+      Duration timeout) {
+    return new Poller().pollUntil(request, condition, timeout);
+  }
+
+  /**
+   * This method sends a request until a value of its JSON response meets a
+   * condition, backing off exponentially between attempts, see {@link Poller}
+   *
+   * @param request
+   *            sends the request, e.g. {@code () -> APIUtils.get(baseUri, "/jobs/42")}
+   * @param elementPath
+   *            element path of the checked value, e.g. $.status
+   * @param condition
+   *            condition on the value, e.g. {@code "DONE"::equals}
+   * @param timeout
+   *            maximum time to poll
+   * @return Poller.Result with the response, value, attempts and time to success
+   * @throws AssertionError
+   *             if the condition is not met in time
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Poller.Result pollUntil(Supplier<Response> request, String elementPath, Predicate<Object> condition,
+      Duration timeout) {
+    return new Poller().pollUntil(request, elementPath, condition, timeout);
+  }
+
+  /**
+   * This method starts a validation of a response which parses the body only
+   * once for all checks, see {@link ResponseValidator}
+   *
+   * @param response
+   *            response to validate
+   * @return ResponseValidator to add checks to
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static ResponseValidator validate(Response response) {
+    return new ResponseValidator(response);
+  }
+
+  /**
+   * This method prepares a load test of a RestAssured call, see
+   * {@link LoadGenerator}
+   *
+   * @param call
+   *            call sending the request and returning its response, e.g.
+   *            {@code () -> APIUtils.get(baseUri, "/orders")}
+   * @param expectedStatusCode
+   *            status code of a successful response, any other counts as error
+   * @return LoadGenerator to configure and run
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static LoadGenerator loadTest(Supplier<Response> call, int expectedStatusCode) {
+    return LoadGenerator.of(call, expectedStatusCode);
+  }
+
+  /**
+   * This method starts a local server which forwards requests to a real service
+   * and records them, see {@link RecordReplayServer}
+   *
+   * @param targetBaseUri
+   *            base URI of the real service, e.g. https://api.example.com
+   * @param recordingDir
+   *            directory to save the recordings to
+   * @return started RecordReplayServer, call its base URI instead of the real
+   *         service
+   * @throws IOException
+   *             if the server cannot be started
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static RecordReplayServer startRecording(String targetBaseUri, String recordingDir) throws IOException {
+    return RecordReplayServer.record(targetBaseUri, recordingDir, 0);
+  }
+
+  /**
+   * This method starts a local server which serves recorded exchanges, see
+   * {@link RecordReplayServer}
+   *
+   * @param recordingDir
+   *            directory containing the recordings
+   * @return started RecordReplayServer, call its base URI instead of the real
+   *         service
+   * @throws IOException
+   *             if the recordings cannot be read or the server cannot be
+   *             started
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static RecordReplayServer startReplay(String recordingDir) throws IOException {
+    return RecordReplayServer.replay(recordingDir, 0);
+  }
+
+  /**
+   * This method enables the client side cache for GET requests made through
+   * APIUtils, see {@link HttpResponseCache}
+   *
+   * @param maxMemoryBytes
+   *            maximum total size of cached responses in memory
+   * @param diskDir
+   *            directory for the disk tier, null for memory only
+   * @return the enabled HttpResponseCache
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static HttpResponseCache enableResponseCache(long maxMemoryBytes, String diskDir) {
+    responseCache = new HttpResponseCache(maxMemoryBytes, diskDir);
+    return responseCache;
+  }
+
+  /**
+   * This method disables the client side cache for GET requests
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void disableResponseCache() {
+    responseCache = null;
+  }
+
+  /**
+   * This method returns the enabled client side cache
+   *
+   * @return HttpResponseCache, or null if caching is disabled
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static HttpResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  /**
+   * This method sets the retry policy for requests made through APIUtils, see
+   * {@link RetryPolicy}
+   *
+   * @param policy
+   *            retry policy, null to disable retries
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void setRetryPolicy(RetryPolicy policy) {
+    retryPolicy = policy;
+  }
+
+  /**
+   * This method sets the per host circuit breaker for requests made through
+   * APIUtils, see {@link CircuitBreaker}
+   *
+   * @param breaker
+   *            circuit breaker, null to disable it
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void setCircuitBreaker(CircuitBreaker breaker) {
+    circuitBreaker = breaker;
+  }
+
+  /**
+   * This method returns the statistics of the whole connection pool
+   *
+   * @return PoolStats with leased, available, pending and max connections
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static PoolStats getPoolStats() {
+    return connectionManager.getTotalStats();
+  }
+
+  /**
+   * This method returns the statistics of the pooled connections to one host
+   *
+   * @param baseUri
+   *            base URI of the host, e.g. https://api.example.com
+   * @return PoolStats with leased, available, pending and max connections
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static PoolStats getPoolStats(String baseUri) {
+    return connectionManager.getStats(toRoute(baseUri));
+  }
+
+  /**
+   * This method logs the statistics of the connection pool
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void logPoolStats() {
+    PoolStats stats = getPoolStats();
+    Log.info("HTTP connection pool: leased=" + stats.getLeased() + ", available=" + stats.getAvailable()
+        + ", pending=" + stats.getPending() + ", max=" + stats.getMax());
+  }
+
+  /**
+   * This method closes pooled connections which have been idle for longer than
+   * the given time
+   *
+   * @param idleSeconds
+   *            idle time in seconds
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void closeIdleConnections(long idleSeconds) {
+    connectionManager.closeExpiredConnections();
+    connectionManager.closeIdleConnections(idleSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * This method closes all pooled connections, e.g. at the end of a run. The
+   * pool is recreated with the same limits on the next request, and registered
+   * request specifications are kept.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static synchronized void shutdownConnectionPool() {
+    configureConnectionPool(connectionManager.getMaxTotal(), connectionManager.getDefaultMaxPerRoute());
+  }
+
+  private static HttpRequest streamingRequest(String uri, Map<String, String> headers) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri)).GET();
+    headers.forEach(builder::header);
+    return builder.build();
+  }
+
+  private static RequestSpecification build(RequestSpecBuilder builder, String baseUri) {
+    return builder.setBaseUri(baseUri).setConfig(config).addFilter(RESPONSE_CACHE_FILTER)
+        .addFilter(APIUtils::releaseConnection).addFilter(APIUtils::applyResilience).build();
+  }
+
+  /**
+   * Applies the circuit breaker and retry policy. RestAssured runs the filter
+   * chain only once per request, so a retry sends a copy of the request through
+   * the whole chain again; the copy is marked so it is not retried or counted a
+   * second time. The response of a failed attempt is read to release its
+   * connection before retrying.
+   */
+  private static Response applyResilience(FilterableRequestSpecification requestSpec,
+      FilterableResponseSpecification responseSpec, FilterContext context) {
+    RetryPolicy policy = retryPolicy;
+    CircuitBreaker breaker = circuitBreaker;
+    if ((policy == null && breaker == null) || retrying.get())
+      return context.next(requestSpec, responseSpec);
+    String host = URI.create(requestSpec.getURI()).getHost();
+    int maxAttempts = policy != null && policy.isRetryable(requestSpec.getMethod()) ? policy.getMaxAttempts() : 1;
+    for (int attempt = 1;; attempt++) {
+      if (breaker != null)
+        breaker.beforeCall(host);
+      Response response;
+      try {
+        response = attempt == 1 ? context.next(requestSpec, responseSpec) : resend(requestSpec);
+      } catch (Exception e) {
+        if (breaker != null)
+          breaker.onFailure(host);
+        if (attempt >= maxAttempts)
+          throw e;
+        Log.warn("Attempt " + attempt + " of " + requestSpec.getMethod() + " " + requestSpec.getURI() + " failed: "
+            + e);
+        sleep(policy.getBackoff(attempt));
+        continue;
+      }
+      if (breaker != null) {
+        if (response.getStatusCode() >= 500)
+          breaker.onFailure(host);
+        else
+          breaker.onSuccess(host);
+      }
+      if (attempt >= maxAttempts || !policy.isRetryable(response.getStatusCode()))
+        return response;
+      response.asByteArray();
+      Log.warn("Attempt " + attempt + " of " + requestSpec.getMethod() + " " + requestSpec.getURI()
+          + " returned status " + response.getStatusCode());
+      sleep(policy.getBackoff(attempt));
+    }
+  }
+
+  /**
+   * Sends a copy of the request. By now RestAssured has moved the query string
+   * of the path into the query parameters, substituted the path parameters and
+   * encoded the form parameters into the body, so the copy keeps the query
+   * parameters and body but is sent to the resolved path without its query
+   * string. Otherwise the retry would repeat every query parameter.
+   */
+  private static Response resend(FilterableRequestSpecification requestSpec) {
+    FilterableRequestSpecification copy = (FilterableRequestSpecification) RestAssured.given().spec(requestSpec);
+    new ArrayList<>(copy.getNamedPathParams().keySet()).forEach(copy::removeNamedPathParam);
+    new ArrayList<>(copy.getFormParams().keySet()).forEach(copy::removeFormParam);
+    URI uri = URI.create(requestSpec.getURI());
+    retrying.set(true);
+    try {
+      return copy.request(requestSpec.getMethod(), uri.getScheme() + "://" + uri.getRawAuthority() + uri.getPath());
+    } finally {
+      retrying.remove();
+    }
+  }
+
+  private static void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to retry", e);
+    }
+  }
+
+  /**
+   * RestAssured keeps the response stream open until the body is read, which
+   * pins the connection as leased. Reading the body up front returns the
+   * connection to the pool for the next request.
+   */
+  private static Response releaseConnection(FilterableRequestSpecification requestSpec,
+      FilterableResponseSpecification responseSpec, FilterContext context) {
+    Response response = context.next(requestSpec, responseSpec);
+    response.asByteArray();
+    return response;
+  }
+
+  private static HttpRoute toRoute(String baseUri) {
+    URI uri = URI.create(baseUri);
+    String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
+    int port = uri.getPort() != -1 ? uri.getPort() : scheme.equalsIgnoreCase("https") ? 443 : 80;
+    return new HttpRoute(new HttpHost(uri.getHost(), port, scheme));
+  }
 }
@@ -0,0 +1,256 @@
+package io.github.the_sdet.api;
+
+import io.github.the_sdet.logger.Log;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking API client built on {@link java.net.http.HttpClient}. Requests
+ * are sent over HTTP/2 where the server supports it, so a fan-out of many
+ * requests to one host is multiplexed over a single connection. Every call
+ * returns a {@link CompletableFuture} and no thread is held while a request is
+ * in flight. The number of requests in flight is bounded so a large fan-out does
+ * not overwhelm the service under test; requests over the limit are queued and
+ * sent as earlier ones complete. On Java 21+ the client runs its callbacks on
+ * virtual threads.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class AsyncAPIClient implements AutoCloseable {
+  private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+  private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+  private final HttpClient client;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final Queue<Runnable> queued = new ConcurrentLinkedQueue<>();
+  private final Duration timeout;
+  private final boolean virtualThreads;
+
+  /**
+   * Creates a client allowing 64 concurrent requests with a 30 second timeout
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public AsyncAPIClient() {
+    this(DEFAULT_MAX_CONCURRENT_REQUESTS, DEFAULT_TIMEOUT);
+  }
+
+  /**
+   * Creates a client
+   *
+   * @param maxConcurrentRequests
+   *            maximum number of requests in flight, further requests wait
+   * @param timeout
+   *            connect and request timeout
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public AsyncAPIClient(int maxConcurrentRequests, Duration timeout) {
+    if (maxConcurrentRequests < 1)
+      throw new IllegalArgumentException("maxConcurrentRequests must be positive: " + maxConcurrentRequests);
+    this.executor = newVirtualThreadExecutor();
+    this.virtualThreads = executor != null;
+    this.permits = new Semaphore(maxConcurrentRequests);
+    this.timeout = timeout;
+    HttpClient.Builder builder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).connectTimeout(timeout)
+        .followRedirects(HttpClient.Redirect.NORMAL);
+    if (executor != null)
+      builder.executor(executor);
+    this.client = builder.build();
+    Log.debug("Async API client created: max " + maxConcurrentRequests + " concurrent requests, callbacks on "
+        + (virtualThreads ? "virtual" : "platform") + " threads");
+  }
+
+  /**
+   * This method checks whether the client runs its callbacks on virtual threads
+   *
+   * @return true on Java 21+, false otherwise
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean isUsingVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * This method sends a request asynchronously
+   *
+   * @param request
+   *            request to send
+   * @param bodyHandler
+   *            handler for the response body
+   * @param <T>
+   *            type of the response body
+   * @return future completing with the response, or exceptionally with the
+   *         IOException of a failed request
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+    CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+    queued.add(() -> {
+      CompletableFuture<HttpResponse<T>> response;
+      try {
+        response = client.sendAsync(request, bodyHandler);
+      } catch (RuntimeException e) {
+        permits.release();
+        result.completeExceptionally(e);
+        return;
+      }
+      response.whenComplete((value, failure) -> {
+        permits.release();
+        dispatch();
+        if (failure != null)
+          result.completeExceptionally(failure);
+        else
+          result.complete(value);
+      });
+    });
+    dispatch();
+    return result;
+  }
+
+  /**
+   * This method sends a request asynchronously and reads the body as String
+   *
+   * @param request
+   *            request to send
+   * @return future completing with the response
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+    return send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  /**
+   * This method sends a GET request asynchronously
+   *
+   * @param uri
+   *            full request URI
+   * @return future completing with the response
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public CompletableFuture<HttpResponse<String>> get(String uri) {
+    return send(newRequest(uri).GET().build());
+  }
+
+  /**
+   * This method sends a GET request with headers asynchronously
+   *
+   * @param uri
+   *            full request URI
+   * @param headers
+   *            request headers
+   * @return future completing with the response
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public CompletableFuture<HttpResponse<String>> get(String uri, Map<String, String> headers) {
+    HttpRequest.Builder builder = newRequest(uri).GET();
+    headers.forEach(builder::header);
+    return send(builder.build());
+  }
+
+  /**
+   * This method sends a POST request with a JSON body asynchronously
+   *
+   * @param uri
+   *            full request URI
+   * @param jsonBody
+   *            JSON request body
+   * @return future completing with the response
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public CompletableFuture<HttpResponse<String>> post(String uri, String jsonBody) {
+    return send(newRequest(uri).header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(jsonBody)).build());
+  }
+
+  /**
+   * This method sends GET requests to all URIs concurrently and waits for all of
+   * them to complete
+   *
+   * @param uris
+   *            full request URIs
+   * @return responses in the order of the URIs
+   * @throws CompletionException
+   *             if any of the requests failed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<HttpResponse<String>> getAll(Collection<String> uris) {
+    List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>(uris.size());
+    for (String uri : uris)
+      futures.add(get(uri));
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    List<HttpResponse<String>> responses = new ArrayList<>(futures.size());
+    for (CompletableFuture<HttpResponse<String>> future : futures)
+      responses.add(future.join());
+    return responses;
+  }
+
+  /**
+   * This method shuts down the virtual thread executor of the client, if any,
+   * and waits briefly for in-flight requests
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public void close() {
+    if (executor == null)
+      return;
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS))
+        executor.shutdownNow();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+  }
+
+  HttpClient httpClient() {
+    return client;
+  }
+
+  /**
+   * This method sends queued requests while permits are available. It runs
+   * whenever a request is queued or completes, so a queued request is sent as
+   * soon as a permit is released.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private void dispatch() {
+    while (!queued.isEmpty() && permits.tryAcquire()) {
+      Runnable next = queued.poll();
+      if (next == null)
+        permits.release();
+      else
+        next.run();
+    }
+  }
+
+  private HttpRequest.Builder newRequest(String uri) {
+    return HttpRequest.newBuilder(URI.create(uri)).timeout(timeout);
+  }
+
+  static ExecutorService newVirtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package io.github.the_sdet.api;
+
+import io.github.the_sdet.logger.Log;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per host circuit breaker. After a number of consecutive failures (exceptions
+ * or 5xx responses) the circuit of the host opens and calls fail immediately
+ * for a cool-down window, instead of every test waiting out its own timeout
+ * against a degraded dependency. After the cool-down a single trial call is let
+ * through (half open): success closes the circuit again, failure re-opens it.
+ * State transitions are logged.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class CircuitBreaker {
+  private final int failureThreshold;
+  private final Duration coolDown;
+  private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+  /**
+   * State of a circuit
+   */
+  public enum State {
+    /**
+     * Calls pass through
+     */
+    CLOSED,
+    /**
+     * Calls fail fast until the cool-down has passed
+     */
+    OPEN,
+    /**
+     * A trial call is in flight, other calls fail fast
+     */
+    HALF_OPEN
+  }
+
+  private static final class Circuit {
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+  }
+
+  /**
+   * Creates a circuit breaker
+   *
+   * @param failureThreshold
+   *            consecutive failures which open the circuit
+   * @param coolDown
+   *            time calls fail fast before a trial call is allowed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public CircuitBreaker(int failureThreshold, Duration coolDown) {
+    if (failureThreshold < 1)
+      throw new IllegalArgumentException("failureThreshold must be positive: " + failureThreshold);
+    this.failureThreshold = failureThreshold;
+    this.coolDown = coolDown;
+  }
+
+  /**
+   * This method checks whether a call to a host may proceed
+   *
+   * @param host
+   *            host name
+   * @throws IllegalStateException
+   *             if the circuit of the host is open
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void beforeCall(String host) {
+    Circuit circuit = circuits.computeIfAbsent(host, h -> new Circuit());
+    synchronized (circuit) {
+      if (circuit.state == State.CLOSED)
+        return;
+      long openFor = System.nanoTime() - circuit.openedAt;
+      if (circuit.state == State.OPEN && openFor >= coolDown.toNanos()) {
+        transition(host, circuit, State.HALF_OPEN);
+        return;
+      }
+      throw new IllegalStateException("Circuit breaker for " + host + " is " + circuit.state + ", failing fast ("
+          + Math.max(0, (coolDown.toNanos() - openFor) / 1_000_000) + " ms of cool-down left)");
+    }
+  }
+
+  /**
+   * This method records a successful call
+   *
+   * @param host
+   *            host name
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void onSuccess(String host) {
+    Circuit circuit = circuits.computeIfAbsent(host, h -> new Circuit());
+    synchronized (circuit) {
+      circuit.failures = 0;
+      if (circuit.state != State.CLOSED)
+        transition(host, circuit, State.CLOSED);
+    }
+  }
+
+  /**
+   * This method records a failed call
+   *
+   * @param host
+   *            host name
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void onFailure(String host) {
+    Circuit circuit = circuits.computeIfAbsent(host, h -> new Circuit());
+    synchronized (circuit) {
+      circuit.failures++;
+      if (circuit.state == State.HALF_OPEN
+          || (circuit.state == State.CLOSED && circuit.failures >= failureThreshold)) {
+        circuit.openedAt = System.nanoTime();
+        transition(host, circuit, State.OPEN);
+      }
+    }
+  }
+
+  /**
+   * This method returns the state of the circuit of a host
+   *
+   * @param host
+   *            host name
+   * @return State of the circuit, CLOSED for unknown hosts
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public State getState(String host) {
+    Circuit circuit = circuits.get(host);
+    if (circuit == null)
+      return State.CLOSED;
+    synchronized (circuit) {
+      return circuit.state;
+    }
+  }
+
+  /**
+   * This method closes all circuits
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void reset() {
+    circuits.clear();
+  }
+
+  private void transition(String host, Circuit circuit, State state) {
+    Log.warn("Circuit breaker for " + host + ": " + circuit.state + " -> " + state + " (consecutive failures: "
+        + circuit.failures + ")");
+    circuit.state = state;
+  }
+}
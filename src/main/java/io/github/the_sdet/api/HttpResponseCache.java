@@ -0,0 +1,606 @@
+package io.github.the_sdet.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.the_sdet.json.JsonFileWriter;
+import io.github.the_sdet.logger.Log;
+import io.restassured.authentication.AuthenticationScheme;
+import io.restassured.authentication.ExplicitNoAuthScheme;
+import io.restassured.authentication.NoAuthScheme;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Client side HTTP cache for GET requests, used as a RestAssured filter.
+ * Responses are stored when the server allows it ({@code Cache-Control},
+ * {@code Expires}) or when they can be revalidated ({@code ETag},
+ * {@code Last-Modified}). A fresh entry is served without a request; a stale
+ * one is revalidated with {@code If-None-Match} / {@code If-Modified-Since} and
+ * served again on {@code 304 Not Modified}. Entries live in a size-bounded LRU
+ * in memory, optionally backed by a size-bounded directory on disk so they
+ * survive between runs. Requests with other methods invalidate the entry of
+ * their URI.
+ * <p>
+ * Entries are keyed by URI and by the {@code Accept}, {@code Authorization} and
+ * {@code Cookie} headers of the request, so responses are never shared between
+ * credentials. Request headers named by the {@code Vary} header of a response
+ * must match as well, and {@code Vary: *} responses are not stored. The filter
+ * runs after all other filters so that headers added by authentication filters
+ * are part of the key; requests using a RestAssured authentication scheme,
+ * whose credentials are only added by the HTTP client, bypass the cache.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class HttpResponseCache implements OrderedFilter {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Set<String> UNCACHED_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+      "set-cookie");
+  private static final List<String> KEY_HEADERS = List.of("Accept", "Authorization", "Cookie");
+  private static final long DEFAULT_MAX_DISK_BYTES = 256L * 1024 * 1024;
+  private static final String FILE_SUFFIX = ".json.gz";
+  private final long maxBytes;
+  private final Path diskDir;
+  private final long maxDiskBytes;
+  private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+  private final Map<String, HostStatistics> statistics = new ConcurrentHashMap<>();
+  private final Object diskLock = new Object();
+  private long memoryBytes;
+  private long diskBytes = -1;
+
+  /**
+   * Cached response as stored in memory and on disk
+   *
+   * @param uri
+   *            request URI
+   * @param statusCode
+   *            response status code
+   * @param statusLine
+   *            response status line
+   * @param headers
+   *            response headers as name/value pairs
+   * @param body
+   *            response body
+   * @param expiresAt
+   *            epoch millis until which the entry is fresh
+   * @param vary
+   *            request header values named by the Vary response header, keyed
+   *            by lower case header name
+   */
+  public record Entry(String uri, int statusCode, String statusLine, List<String[]> headers, byte[] body,
+      long expiresAt, Map<String, String> vary) {
+    String header(String name) {
+      for (String[] header : headers)
+        if (header[0].equalsIgnoreCase(name))
+          return header[1];
+      return null;
+    }
+
+    long size() {
+      long size = body.length + uri.length() + 64;
+      for (String[] header : headers)
+        size += header[0].length() + header[1].length();
+      return size;
+    }
+  }
+
+  /**
+   * Hit statistics of one host
+   */
+  public static final class HostStatistics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @return requests served from the cache without contacting the server
+     */
+    public long getHits() {
+      return hits.sum();
+    }
+
+    /**
+     * @return requests answered by the server with 304 Not Modified
+     */
+    public long getRevalidated() {
+      return revalidated.sum();
+    }
+
+    /**
+     * @return requests which returned a full response from the server
+     */
+    public long getMisses() {
+      return misses.sum();
+    }
+
+    /**
+     * @return share of requests whose body was served from the cache
+     */
+    public double getHitRate() {
+      long served = getHits() + getRevalidated();
+      long total = served + getMisses();
+      return total == 0 ? 0 : (double) served / total;
+    }
+
+    @Override
+    public String toString() {
+      return "hits=" + getHits() + ", revalidated=" + getRevalidated() + ", misses=" + getMisses() + ", hitRate="
+          + String.format("%.1f%%", getHitRate() * 100);
+    }
+  }
+
+  /**
+   * Creates a memory only cache
+   *
+   * @param maxBytes
+   *            maximum total size of cached entries in memory
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public HttpResponseCache(long maxBytes) {
+    this(maxBytes, null);
+  }
+
+  /**
+   * Creates a cache with a disk tier holding at most 256 MB
+   *
+   * @param maxBytes
+   *            maximum total size of cached entries in memory
+   * @param diskDir
+   *            directory for the disk tier, null for memory only
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public HttpResponseCache(long maxBytes, String diskDir) {
+    this(maxBytes, diskDir, DEFAULT_MAX_DISK_BYTES);
+  }
+
+  /**
+   * Creates a cache with a size-bounded disk tier. When the disk tier outgrows
+   * its limit, the least recently used files are deleted until it is back below
+   * 90% of the limit.
+   *
+   * @param maxBytes
+   *            maximum total size of cached entries in memory
+   * @param diskDir
+   *            directory for the disk tier, null for memory only
+   * @param maxDiskBytes
+   *            maximum total size of the compressed files on disk
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public HttpResponseCache(long maxBytes, String diskDir, long maxDiskBytes) {
+    this.maxBytes = maxBytes;
+    this.diskDir = diskDir == null ? null : Path.of(diskDir);
+    this.maxDiskBytes = maxDiskBytes;
+  }
+
+  @Override
+  public int getOrder() {
+    return LOWEST_PRECEDENCE;
+  }
+
+  @Override
+  public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+      FilterContext context) {
+    String method = requestSpec.getMethod().toUpperCase(Locale.ROOT);
+    String uri = requestSpec.getURI();
+    if (!method.equals("GET")) {
+      Response response = context.next(requestSpec, responseSpec);
+      if (!method.equals("HEAD") && !method.equals("OPTIONS"))
+        invalidate(uri);
+      return response;
+    }
+    String requestCacheControl = requestSpec.getHeaders().getValue("Cache-Control");
+    if (requestCacheControl != null && requestCacheControl.contains("no-store"))
+      return context.next(requestSpec, responseSpec);
+    AuthenticationScheme authentication = requestSpec.getAuthenticationScheme();
+    if (authentication != null && !(authentication instanceof NoAuthScheme)
+        && !(authentication instanceof ExplicitNoAuthScheme))
+      return context.next(requestSpec, responseSpec);
+    HostStatistics host = statistics.computeIfAbsent(hostOf(uri), h -> new HostStatistics());
+    String variant = variantOf(requestSpec);
+    Entry entry = get(uri, variant);
+    if (entry != null && !matchesVary(entry, requestSpec.getHeaders()))
+      entry = null;
+    boolean forceRevalidation = requestCacheControl != null && requestCacheControl.contains("no-cache");
+    if (entry != null && !forceRevalidation && entry.expiresAt() > System.currentTimeMillis()) {
+      host.hits.increment();
+      return toResponse(entry);
+    }
+    boolean conditional = false;
+    if (entry != null && !requestSpec.getHeaders().hasHeaderWithName("If-None-Match")
+        && !requestSpec.getHeaders().hasHeaderWithName("If-Modified-Since")) {
+      String etag = entry.header("ETag");
+      String lastModified = entry.header("Last-Modified");
+      if (etag != null)
+        requestSpec.header("If-None-Match", etag);
+      if (lastModified != null)
+        requestSpec.header("If-Modified-Since", lastModified);
+      conditional = etag != null || lastModified != null;
+    }
+    Response response = context.next(requestSpec, responseSpec);
+    if (conditional && response.getStatusCode() == 304) {
+      host.revalidated.increment();
+      Entry refreshed = new Entry(entry.uri(), entry.statusCode(), entry.statusLine(), entry.headers(), entry.body(),
+          expiresAt(response.getHeaders()), entry.vary());
+      put(uri, variant, refreshed);
+      return toResponse(refreshed);
+    }
+    host.misses.increment();
+    if (response.getStatusCode() == 200 && isStorable(response.getHeaders()))
+      put(uri, variant, toEntry(uri, response, requestSpec.getHeaders()));
+    else if (entry != null)
+      invalidate(uri);
+    return response;
+  }
+
+  /**
+   * This method returns the hit statistics of one host
+   *
+   * @param host
+   *            host name, e.g. api.example.com
+   * @return HostStatistics, empty if the host has not been called
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public HostStatistics getStatistics(String host) {
+    return statistics.getOrDefault(host, new HostStatistics());
+  }
+
+  /**
+   * This method returns the hit statistics of all hosts
+   *
+   * @return Map of host name to HostStatistics
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Map<String, HostStatistics> getStatistics() {
+    return new TreeMap<>(statistics);
+  }
+
+  /**
+   * This method logs the hit statistics of all hosts
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void logStatistics() {
+    getStatistics().forEach((host, stats) -> Log.info("HTTP cache " + host + ": " + stats));
+  }
+
+  /**
+   * This method returns the total size of the entries held in memory
+   *
+   * @return size in bytes
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public synchronized long getMemorySize() {
+    return memoryBytes;
+  }
+
+  /**
+   * This method removes all entries from memory and disk and resets the
+   * statistics
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public synchronized void clear() {
+    memory.clear();
+    memoryBytes = 0;
+    statistics.clear();
+    if (diskDir != null && Files.isDirectory(diskDir)) {
+      synchronized (diskLock) {
+        try (var files = Files.list(diskDir)) {
+          for (Path file : (Iterable<Path>) files::iterator)
+            if (file.getFileName().toString().endsWith(FILE_SUFFIX))
+              Files.deleteIfExists(file);
+          diskBytes = 0;
+        } catch (IOException e) {
+          Log.error("Unable to clear HTTP cache directory: " + diskDir, e);
+          diskBytes = -1;
+        }
+      }
+    }
+  }
+
+  private Entry get(String uri, String variant) {
+    String key = uri + '\n' + variant;
+    synchronized (this) {
+      Entry entry = memory.get(key);
+      if (entry != null || diskDir == null)
+        return entry;
+    }
+    Path file = diskDir.resolve(fileName(uri, variant));
+    try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+      Entry entry = MAPPER.readValue(inputStream, Entry.class);
+      putInMemory(key, entry);
+      touch(file);
+      return entry;
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      Log.warn("Ignoring unreadable HTTP cache entry: " + file);
+      return null;
+    }
+  }
+
+  private void put(String uri, String variant, Entry entry) {
+    putInMemory(uri + '\n' + variant, entry);
+    if (diskDir == null)
+      return;
+    try {
+      Files.createDirectories(diskDir);
+      byte[] json = MAPPER.writeValueAsBytes(entry);
+      Path file = diskDir.resolve(fileName(uri, variant));
+      long previousSize = sizeOf(file);
+      JsonFileWriter.write(file, outputStream -> outputStream.write(json), true);
+      accountDisk(sizeOf(file) - previousSize);
+    } catch (IOException e) {
+      Log.error("Unable to write HTTP cache entry for " + uri, e);
+    }
+  }
+
+  /**
+   * This method updates the size of the disk tier and deletes the least
+   * recently used files once it exceeds its limit. The size is taken from a
+   * directory listing on first use and after every eviction.
+   *
+   * @param delta
+   *            change of the disk tier size in bytes
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private void accountDisk(long delta) {
+    synchronized (diskLock) {
+      if (diskBytes >= 0) {
+        diskBytes += delta;
+        if (diskBytes <= maxDiskBytes)
+          return;
+      }
+      List<Path> files;
+      try (var listing = Files.list(diskDir)) {
+        files = listing.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX)).toList();
+      } catch (IOException e) {
+        Log.warn("Unable to list HTTP cache directory: " + diskDir);
+        return;
+      }
+      Map<Path, long[]> attributes = new LinkedHashMap<>();
+      long total = 0;
+      for (Path file : files) {
+        try {
+          BasicFileAttributes fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+          attributes.put(file, new long[]{fileAttributes.lastModifiedTime().toMillis(), fileAttributes.size()});
+          total += fileAttributes.size();
+        } catch (IOException e) {
+          // deleted concurrently
+        }
+      }
+      if (total > maxDiskBytes) {
+        long target = maxDiskBytes / 10 * 9;
+        List<Map.Entry<Path, long[]>> oldestFirst = new ArrayList<>(attributes.entrySet());
+        oldestFirst.sort(Comparator.comparingLong(file -> file.getValue()[0]));
+        int evicted = 0;
+        for (Map.Entry<Path, long[]> file : oldestFirst) {
+          if (total <= target)
+            break;
+          try {
+            Files.deleteIfExists(file.getKey());
+            total -= file.getValue()[1];
+            evicted++;
+          } catch (IOException e) {
+            Log.warn("Unable to evict HTTP cache entry: " + file.getKey());
+          }
+        }
+        Log.debug("Evicted " + evicted + " HTTP cache entries from " + diskDir);
+      }
+      diskBytes = total;
+    }
+  }
+
+  /**
+   * This method marks a disk file as recently used, the modification time
+   * orders the disk tier for eviction
+   *
+   * @param file
+   *            cache file
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static void touch(Path file) {
+    try {
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      // evicted concurrently, the entry is already in memory
+    }
+  }
+
+  private static long sizeOf(Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private synchronized void putInMemory(String key, Entry entry) {
+    Entry previous = memory.put(key, entry);
+    if (previous != null)
+      memoryBytes -= previous.size();
+    memoryBytes += entry.size();
+    Iterator<Entry> eldest = memory.values().iterator();
+    while (memoryBytes > maxBytes && eldest.hasNext()) {
+      memoryBytes -= eldest.next().size();
+      eldest.remove();
+    }
+  }
+
+  private void invalidate(String uri) {
+    synchronized (this) {
+      Iterator<Map.Entry<String, Entry>> entries = memory.entrySet().iterator();
+      while (entries.hasNext()) {
+        Map.Entry<String, Entry> cached = entries.next();
+        if (cached.getKey().startsWith(uri + '\n')) {
+          memoryBytes -= cached.getValue().size();
+          entries.remove();
+        }
+      }
+    }
+    if (diskDir == null || !Files.isDirectory(diskDir))
+      return;
+    String prefix = hash(uri, 16) + "-";
+    long deleted = 0;
+    try (var files = Files.list(diskDir)) {
+      for (Path file : (Iterable<Path>) files::iterator)
+        if (file.getFileName().toString().startsWith(prefix)) {
+          long size = sizeOf(file);
+          if (Files.deleteIfExists(file))
+            deleted += size;
+        }
+    } catch (IOException e) {
+      Log.warn("Unable to delete HTTP cache entries for " + uri);
+    }
+    accountDisk(-deleted);
+  }
+
+  private static Entry toEntry(String uri, Response response, Headers requestHeaders) {
+    List<String[]> headers = new ArrayList<>();
+    for (Header header : response.getHeaders())
+      if (!UNCACHED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT)))
+        headers.add(new String[]{header.getName(), header.getValue()});
+    Map<String, String> vary = new TreeMap<>();
+    for (String name : varyNames(response.getHeaders()))
+      vary.put(name, String.valueOf(requestHeaders.getValues(name)));
+    return new Entry(uri, response.getStatusCode(), response.getStatusLine(), headers, response.asByteArray(),
+        expiresAt(response.getHeaders()), vary);
+  }
+
+  /**
+   * This method builds the part of the cache key derived from the request
+   * headers which always select a different representation or user
+   *
+   * @param requestSpec
+   *            request
+   * @return hash of the Accept, Authorization and Cookie values
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static String variantOf(FilterableRequestSpecification requestSpec) {
+    StringBuilder variant = new StringBuilder();
+    for (String name : KEY_HEADERS)
+      variant.append(name).append('=').append(requestSpec.getHeaders().getValues(name)).append('\n');
+    requestSpec.getCookies()
+        .forEach(cookie -> variant.append(cookie.getName()).append('=').append(cookie.getValue()).append(';'));
+    return hash(variant.toString(), 8);
+  }
+
+  private static boolean matchesVary(Entry entry, Headers requestHeaders) {
+    if (entry.vary() == null)
+      return true;
+    for (Map.Entry<String, String> vary : entry.vary().entrySet())
+      if (!vary.getValue().equals(String.valueOf(requestHeaders.getValues(vary.getKey()))))
+        return false;
+    return true;
+  }
+
+  private static List<String> varyNames(Headers headers) {
+    List<String> names = new ArrayList<>();
+    for (String vary : headers.getValues("Vary"))
+      for (String name : vary.split(","))
+        if (!name.isBlank())
+          names.add(name.trim().toLowerCase(Locale.ROOT));
+    return names;
+  }
+
+  private static Response toResponse(Entry entry) {
+    List<Header> headers = new ArrayList<>(entry.headers().size());
+    for (String[] header : entry.headers())
+      headers.add(new Header(header[0], header[1]));
+    ResponseBuilder builder = new ResponseBuilder().setStatusCode(entry.statusCode())
+        .setStatusLine(entry.statusLine()).setHeaders(new Headers(headers)).setBody(entry.body());
+    String contentType = entry.header("Content-Type");
+    if (contentType != null)
+      builder.setContentType(contentType);
+    return builder.build();
+  }
+
+  private static boolean isStorable(Headers headers) {
+    String cacheControl = headers.getValue("Cache-Control");
+    if (cacheControl != null && cacheControl.contains("no-store"))
+      return false;
+    if (varyNames(headers).contains("*"))
+      return false;
+    return headers.hasHeaderWithName("ETag") || headers.hasHeaderWithName("Last-Modified")
+        || expiresAt(headers) > System.currentTimeMillis();
+  }
+
+  private static long expiresAt(Headers headers) {
+    long now = System.currentTimeMillis();
+    String cacheControl = headers.getValue("Cache-Control");
+    if (cacheControl != null) {
+      for (String directive : cacheControl.split(",")) {
+        String value = directive.trim().toLowerCase(Locale.ROOT);
+        if (value.equals("no-cache"))
+          return now;
+        if (value.startsWith("max-age=")) {
+          try {
+            return now + Long.parseLong(value.substring(8).replace("\"", "")) * 1000;
+          } catch (NumberFormatException e) {
+            return now;
+          }
+        }
+      }
+    }
+    String expires = headers.getValue("Expires");
+    if (expires != null) {
+      try {
+        return ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+      } catch (DateTimeParseException e) {
+        return now;
+      }
+    }
+    return now;
+  }
+
+  private static String hostOf(String uri) {
+    String host = URI.create(uri).getHost();
+    return host == null ? "" : host;
+  }
+
+  private static String fileName(String uri, String variant) {
+    return hash(uri, 16) + "-" + variant + FILE_SUFFIX;
+  }
+
+  private static String hash(String value, int bytes) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash, 0, bytes);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
@@ -0,0 +1,264 @@
+package io.github.the_sdet.api;
+
+import io.github.the_sdet.logger.Log;
+import io.restassured.response.Response;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Drives a request definition to produce load and records latencies in HDR
+ * histograms. Two workload models are supported:
+ * <ul>
+ * <li>open model ({@link #runAtRate(double)}): requests are issued on a fixed
+ * schedule regardless of how fast the service responds. Latency is measured
+ * from the time a request was <em>scheduled</em> to start, so time spent
+ * queued behind a slow response is included and the percentiles are corrected
+ * for coordinated omission.</li>
+ * <li>closed model ({@link #runWithConcurrency(int)}): a fixed number of
+ * virtual users send requests back to back. Latency is the service time of
+ * each request.</li>
+ * </ul>
+ * Example:
+ *
+ * <pre>
+ * LoadTestReport report = APIUtils.loadTest(() -&gt; APIUtils.get(baseUri, "/orders"), 200)
+ *     .warmUp(Duration.ofSeconds(5)).duration(Duration.ofSeconds(30)).runAtRate(100);
+ * report.assertPercentileBelow(99, Duration.ofMillis(250));
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class LoadGenerator {
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private final LoadRequest request;
+  private Duration warmUp = Duration.ZERO;
+  private Duration duration = Duration.ofSeconds(30);
+  private int maxConcurrency = 256;
+
+  /**
+   * A single request of the load test
+   */
+  @FunctionalInterface
+  public interface LoadRequest {
+    /**
+     * Executes the request once
+     *
+     * @return true if the request succeeded, false if it counts as an error
+     * @throws Exception
+     *             if the request failed, counted as an error
+     */
+    boolean execute() throws Exception;
+  }
+
+  /**
+   * Creates a load generator for a request definition
+   *
+   * @param request
+   *            request executed for every iteration
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public LoadGenerator(LoadRequest request) {
+    this.request = request;
+  }
+
+  /**
+   * Creates a load generator for a RestAssured call
+   *
+   * @param call
+   *            call sending the request and returning its response
+   * @param expectedStatusCode
+   *            status code of a successful response, any other counts as error
+   * @return LoadGenerator object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static LoadGenerator of(Supplier<Response> call, int expectedStatusCode) {
+    return new LoadGenerator(() -> call.get().getStatusCode() == expectedStatusCode);
+  }
+
+  /**
+   * This method sets a warm-up period run before measuring, excluded from the
+   * report
+   *
+   * @param warmUp
+   *            warm-up duration, zero by default
+   * @return this LoadGenerator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public LoadGenerator warmUp(Duration warmUp) {
+    this.warmUp = warmUp;
+    return this;
+  }
+
+  /**
+   * This method sets the measured duration of the run
+   *
+   * @param duration
+   *            measured duration, 30 seconds by default
+   * @return this LoadGenerator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public LoadGenerator duration(Duration duration) {
+    this.duration = duration;
+    return this;
+  }
+
+  /**
+   * This method limits the number of requests executing at once in the open
+   * model. Scheduled requests beyond this limit queue, and their queueing time
+   * is part of the measured latency. Ignored on Java 21+ where each request
+   * runs on its own virtual thread.
+   *
+   * @param maxConcurrency
+   *            maximum requests executing at once, 256 by default
+   * @return this LoadGenerator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public LoadGenerator maxConcurrency(int maxConcurrency) {
+    this.maxConcurrency = maxConcurrency;
+    return this;
+  }
+
+  /**
+   * This method runs the open model: requests start at a constant rate
+   * independent of response times
+   *
+   * @param requestsPerSecond
+   *            target arrival rate
+   * @return LoadTestReport of the measured period
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public LoadTestReport runAtRate(double requestsPerSecond) {
+    if (!(requestsPerSecond > 0) || Double.isInfinite(requestsPerSecond))
+      throw new IllegalArgumentException("requestsPerSecond must be positive and finite: " + requestsPerSecond);
+    double nanosPerRequest = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+    Recorder recorder = newRecorder();
+    LongAdder errors = new LongAdder();
+    ExecutorService executor = AsyncAPIClient.newVirtualThreadExecutor();
+    if (executor == null)
+      executor = Executors.newFixedThreadPool(maxConcurrency, daemonThreads());
+    long start = System.nanoTime();
+    long measureStart = start + warmUp.toNanos();
+    long end = measureStart + duration.toNanos();
+    try {
+      for (long i = 0;; i++) {
+        // computed from the start rather than by adding a truncated interval, so the rate does not drift
+        long intended = start + (long) (i * nanosPerRequest);
+        if (intended >= end)
+          break;
+        long wait = intended - System.nanoTime();
+        if (wait > 0)
+          LockSupport.parkNanos(wait);
+        executor.execute(() -> {
+          boolean success = execute();
+          if (intended >= measureStart) {
+            recorder.recordValue(Math.min(System.nanoTime() - intended, HIGHEST_TRACKABLE_NANOS));
+            if (!success)
+              errors.increment();
+          }
+        });
+      }
+    } finally {
+      awaitCompletion(executor);
+    }
+    long elapsed = Math.max(System.nanoTime(), end) - measureStart;
+    LoadTestReport report = new LoadTestReport("open", requestsPerSecond, 0, recorder.getIntervalHistogram(),
+        errors.sum(), elapsed);
+    report.log();
+    return report;
+  }
+
+  /**
+   * This method runs the closed model: a fixed number of virtual users send
+   * requests back to back
+   *
+   * @param concurrency
+   *            number of virtual users
+   * @return LoadTestReport of the measured period
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public LoadTestReport runWithConcurrency(int concurrency) {
+    if (concurrency < 1)
+      throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+    Recorder recorder = newRecorder();
+    LongAdder errors = new LongAdder();
+    long start = System.nanoTime();
+    long measureStart = start + warmUp.toNanos();
+    long end = measureStart + duration.toNanos();
+    List<Thread> users = new ArrayList<>(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      Thread user = new Thread(() -> {
+        long now = System.nanoTime();
+        while (now < end) {
+          boolean success = execute();
+          long finished = System.nanoTime();
+          if (now >= measureStart) {
+            recorder.recordValue(Math.min(finished - now, HIGHEST_TRACKABLE_NANOS));
+            if (!success)
+              errors.increment();
+          }
+          now = finished;
+        }
+      }, "load-user-" + (i + 1));
+      user.setDaemon(true);
+      user.start();
+      users.add(user);
+    }
+    try {
+      for (Thread user : users)
+        user.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    long elapsed = Math.max(System.nanoTime(), end) - measureStart;
+    LoadTestReport report = new LoadTestReport("closed", 0, concurrency, recorder.getIntervalHistogram(),
+        errors.sum(), elapsed);
+    report.log();
+    return report;
+  }
+
+  private boolean execute() {
+    try {
+      return request.execute();
+    } catch (Exception e) {
+      Log.debug("Load test request failed: " + e);
+      return false;
+    }
+  }
+
+  private static Recorder newRecorder() {
+    return new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+  }
+
+  private static ThreadFactory daemonThreads() {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "load-worker-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static void awaitCompletion(ExecutorService executor) {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(HIGHEST_TRACKABLE_NANOS, TimeUnit.NANOSECONDS))
+        executor.shutdownNow();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+  }
+}
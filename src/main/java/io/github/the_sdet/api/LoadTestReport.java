@@ -0,0 +1,245 @@
+package io.github.the_sdet.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.the_sdet.json.JsonFileWriter;
+import io.github.the_sdet.logger.Log;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a {@link LoadGenerator} run: latency distribution, throughput and
+ * error rate of the measured period. Latencies are reported in milliseconds.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class LoadTestReport {
+  private static final double[] REPORTED_PERCENTILES = {50, 90, 99, 99.9};
+  private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+  private final String model;
+  private final double targetRate;
+  private final int concurrency;
+  private final Histogram histogram;
+  private final long errors;
+  private final long elapsedNanos;
+
+  LoadTestReport(String model, double targetRate, int concurrency, Histogram histogram, long errors,
+      long elapsedNanos) {
+    this.model = model;
+    this.targetRate = targetRate;
+    this.concurrency = concurrency;
+    this.histogram = histogram;
+    this.errors = errors;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * This method returns the number of measured requests
+   *
+   * @return request count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long getRequestCount() {
+    return histogram.getTotalCount();
+  }
+
+  /**
+   * This method returns the number of failed requests
+   *
+   * @return error count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long getErrorCount() {
+    return errors;
+  }
+
+  /**
+   * This method returns the share of failed requests
+   *
+   * @return error rate between 0 and 1
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public double getErrorRate() {
+    long count = getRequestCount();
+    return count == 0 ? 0 : (double) errors / count;
+  }
+
+  /**
+   * This method returns the achieved throughput
+   *
+   * @return completed requests per second
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public double getThroughput() {
+    return elapsedNanos == 0 ? 0 : getRequestCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  /**
+   * This method returns the latency at a percentile
+   *
+   * @param percentile
+   *            percentile between 0 and 100, e.g. 99.9
+   * @return latency in milliseconds
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public double getPercentile(double percentile) {
+    return toMillis(histogram.getValueAtPercentile(percentile));
+  }
+
+  /**
+   * This method returns the highest recorded latency
+   *
+   * @return latency in milliseconds
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public double getMaxLatency() {
+    return toMillis(histogram.getMaxValue());
+  }
+
+  /**
+   * This method returns the mean latency
+   *
+   * @return latency in milliseconds
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public double getMeanLatency() {
+    return histogram.getMean() / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * This method returns a copy of the raw latency histogram, values in
+   * nanoseconds
+   *
+   * @return Histogram object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Histogram getHistogram() {
+    return histogram.copy();
+  }
+
+  /**
+   * This method fails if the latency at a percentile exceeds a limit
+   *
+   * @param percentile
+   *            percentile between 0 and 100, e.g. 99
+   * @param limit
+   *            maximum allowed latency
+   * @throws AssertionError
+   *             if the limit is exceeded
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void assertPercentileBelow(double percentile, Duration limit) {
+    double actual = getPercentile(percentile);
+    double allowed = limit.toNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    if (actual > allowed)
+      throw new AssertionError(
+          "p" + format(percentile) + " latency " + format(actual) + " ms exceeds " + format(allowed) + " ms");
+  }
+
+  /**
+   * This method fails if the error rate exceeds a limit
+   *
+   * @param maxErrorRate
+   *            maximum allowed error rate between 0 and 1
+   * @throws AssertionError
+   *             if the limit is exceeded
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void assertErrorRateBelow(double maxErrorRate) {
+    if (getErrorRate() > maxErrorRate)
+      throw new AssertionError("Error rate " + format(getErrorRate()) + " exceeds " + format(maxErrorRate));
+  }
+
+  /**
+   * This method returns the report as key/value pairs in a stable order
+   *
+   * @return Map of the report
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Map<String, Object> toMap() {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("model", model);
+    if (targetRate > 0)
+      report.put("targetRate", targetRate);
+    if (concurrency > 0)
+      report.put("concurrency", concurrency);
+    report.put("durationSeconds", elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    report.put("requests", getRequestCount());
+    report.put("errors", errors);
+    report.put("errorRate", getErrorRate());
+    report.put("throughput", getThroughput());
+    Map<String, Object> latency = new LinkedHashMap<>();
+    latency.put("mean", getMeanLatency());
+    for (double percentile : REPORTED_PERCENTILES)
+      latency.put("p" + format(percentile), getPercentile(percentile));
+    latency.put("max", getMaxLatency());
+    report.put("latencyMillis", latency);
+    return report;
+  }
+
+  /**
+   * This method returns the report as JSON
+   *
+   * @return JSON String
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String toJson() {
+    try {
+      return MAPPER.writeValueAsString(toMap());
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to serialize load test report", e);
+    }
+  }
+
+  /**
+   * This method writes the report as JSON file
+   *
+   * @param filePath
+   *            path of the JSON file
+   * @throws IOException
+   *             if the file cannot be written
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void writeJson(String filePath) throws IOException {
+    byte[] json = toJson().getBytes(StandardCharsets.UTF_8);
+    JsonFileWriter.write(Path.of(filePath), outputStream -> outputStream.write(json), false);
+  }
+
+  /**
+   * This method logs a one line summary of the report
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void log() {
+    StringBuilder summary = new StringBuilder("Load test (").append(model).append(" model): ")
+        .append(getRequestCount()).append(" requests, ").append(format(getThroughput())).append(" req/s, errors ")
+        .append(format(getErrorRate() * 100)).append("%, latency ms");
+    for (double percentile : REPORTED_PERCENTILES)
+      summary.append(" p").append(format(percentile)).append('=').append(format(getPercentile(percentile)));
+    summary.append(" max=").append(format(getMaxLatency()));
+    Log.info(summary.toString());
+  }
+
+  @Override
+  public String toString() {
+    return toJson();
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static String format(double value) {
+    return BigDecimal.valueOf(value).setScale(3, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+  }
+}
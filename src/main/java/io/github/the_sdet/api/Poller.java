@@ -0,0 +1,196 @@
+package io.github.the_sdet.api;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import io.github.the_sdet.json.JsonPathCache;
+import io.github.the_sdet.logger.Log;
+import io.restassured.response.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Polls an API until a condition is met, e.g. until an asynchronous export or
+ * payment reaches its final status. Attempts are spaced with exponential
+ * backoff and jitter, so a slow job is not hammered while a fast one is
+ * noticed quickly, and a {@code Retry-After} header sent by the server takes
+ * precedence over the computed delay. Requests made through {@link APIUtils}
+ * reuse the same pooled keep-alive connection between attempts.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class Poller {
+  private Duration initialDelay = Duration.ofMillis(200);
+  private Duration maxDelay = Duration.ofSeconds(5);
+  private double multiplier = 2;
+
+  /**
+   * Outcome of a successful poll
+   *
+   * @param response
+   *            response which met the condition
+   * @param value
+   *            value extracted with the element path, null when polling on the
+   *            response
+   * @param attempts
+   *            number of requests sent
+   * @param elapsed
+   *            time until the condition was met
+   */
+  public record Result(Response response, Object value, int attempts, Duration elapsed) {
+  }
+
+  /**
+   * This method sets the delay before the second attempt
+   *
+   * @param initialDelay
+   *            first delay, 200 ms by default
+   * @return this Poller
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Poller initialDelay(Duration initialDelay) {
+    this.initialDelay = initialDelay;
+    return this;
+  }
+
+  /**
+   * This method caps the delay between attempts
+   *
+   * @param maxDelay
+   *            maximum delay, 5 seconds by default
+   * @return this Poller
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Poller maxDelay(Duration maxDelay) {
+    this.maxDelay = maxDelay;
+    return this;
+  }
+
+  /**
+   * This method sets the factor the delay grows by after each attempt
+   *
+   * @param multiplier
+   *            backoff multiplier, 2 by default
+   * @return this Poller
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Poller multiplier(double multiplier) {
+    this.multiplier = multiplier;
+    return this;
+  }
+
+  /**
+   * This method sends a request until its response meets a condition
+   *
+   * @param request
+   *            sends the request, e.g. {@code () -> APIUtils.get(baseUri, "/jobs/42")}
+   * @param condition
+   *            condition on the response
+   * @param timeout
+   *            maximum time to poll
+   * @return Result of the successful attempt
+   * @throws AssertionError
+   *             if the condition is not met in time
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Result pollUntil(Supplier<Response> request, Predicate<Response> condition, Duration timeout) {
+    return poll(request, null, response -> condition.test((Response) response), timeout);
+  }
+
+  /**
+   * This method sends a request until a value of its JSON response meets a
+   * condition. The value is read from the response bytes with a cached compiled
+   * JSON path; a missing element is passed as null.
+   *
+   * @param request
+   *            sends the request, e.g. {@code () -> APIUtils.get(baseUri, "/jobs/42")}
+   * @param elementPath
+   *            element path of the checked value, e.g. $.status
+   * @param condition
+   *            condition on the value, e.g. {@code "DONE"::equals}
+   * @param timeout
+   *            maximum time to poll
+   * @return Result of the successful attempt with the extracted value
+   * @throws AssertionError
+   *             if the condition is not met in time
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Result pollUntil(Supplier<Response> request, String elementPath, Predicate<Object> condition,
+      Duration timeout) {
+    JsonPath path = JsonPathCache.compile(elementPath);
+    return poll(request, path, condition, timeout);
+  }
+
+  private Result poll(Supplier<Response> request, JsonPath path, Predicate<Object> condition, Duration timeout) {
+    long start = System.nanoTime();
+    long deadline = start + timeout.toNanos();
+    long backoff = initialDelay.toNanos();
+    int attempts = 0;
+    Response response;
+    Object value;
+    while (true) {
+      attempts++;
+      response = request.get();
+      value = path == null ? response : extract(response, path);
+      if (condition.test(value)) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Log.info("Poll condition met after " + attempts + " attempts in " + elapsed.toMillis() + " ms");
+        return new Result(response, path == null ? null : value, attempts, elapsed);
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0)
+        break;
+      long retryAfter = retryAfterNanos(response);
+      long delay = retryAfter >= 0 ? retryAfter : backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+      backoff = Math.min((long) (backoff * multiplier), maxDelay.toNanos());
+      try {
+        Thread.sleep(Duration.ofNanos(Math.min(delay, remaining)).toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while polling", e);
+      }
+    }
+    String last = path == null ? "status " + response.getStatusCode() : "value " + value;
+    throw new AssertionError("Poll condition not met after " + attempts + " attempts in " + timeout.toMillis()
+        + " ms, last " + last);
+  }
+
+  private static Object extract(Response response, JsonPath path) {
+    byte[] body = response.asByteArray();
+    if (body.length == 0)
+      return null;
+    try {
+      return path.read(new ByteArrayInputStream(body), "UTF-8", Configuration.defaultConfiguration());
+    } catch (PathNotFoundException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      Log.debug("Unable to read " + path.getPath() + " from poll response: " + e.getMessage());
+      return null;
+    }
+  }
+
+  private static long retryAfterNanos(Response response) {
+    String retryAfter = response.getHeader("Retry-After");
+    if (retryAfter == null)
+      return -1;
+    try {
+      return Duration.ofSeconds(Long.parseLong(retryAfter.trim())).toNanos();
+    } catch (NumberFormatException e) {
+      try {
+        ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        return Math.max(0, Duration.between(ZonedDateTime.now(), date).toNanos());
+      } catch (DateTimeParseException ignored) {
+        return -1;
+      }
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package io.github.the_sdet.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.the_sdet.json.JsonFileWriter;
+import io.github.the_sdet.logger.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Embedded local HTTP server which records and replays API traffic, so suites
+ * depending on slow or rate-limited services can run offline.
+ * <ul>
+ * <li>In record mode every request is forwarded to the real service and the
+ * request/response pair is saved as a gzip compressed JSON file in the
+ * recording directory.</li>
+ * <li>In replay mode the recordings are loaded into an in-memory index keyed by
+ * method, path with query and a SHA-256 hash of the request body, and served
+ * without touching the network. Repeated identical requests are replayed in
+ * the order they were recorded, the last one being repeated once exhausted.
+ * Requests without a recording get a 404 response with an
+ * {@code X-Replay-Miss} header.</li>
+ * </ul>
+ * Point the tests at {@link #getBaseUri()} instead of the real service.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class RecordReplayServer implements AutoCloseable {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String FILE_SUFFIX = ".json.gz";
+  private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "content-length", "expect", "host",
+      "keep-alive", "proxy-connection", "te", "trailer", "transfer-encoding", "upgrade");
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Path recordingDir;
+  private final URI target;
+  private final HttpClient client;
+  private final Map<String, List<Exchange>> recordings = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> sequences = new ConcurrentHashMap<>();
+
+  /**
+   * Recorded request/response pair as stored on disk
+   *
+   * @param key
+   *            matching key of the request
+   * @param method
+   *            request method
+   * @param uri
+   *            request path with query
+   * @param status
+   *            response status code
+   * @param headers
+   *            response headers
+   * @param body
+   *            response body
+   */
+  public record Exchange(String key, String method, String uri, int status, Map<String, List<String>> headers,
+      byte[] body) {
+  }
+
+  private RecordReplayServer(URI target, Path recordingDir, int port) throws IOException {
+    this.target = target;
+    this.recordingDir = recordingDir;
+    this.client = target == null
+        ? null
+        : HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "record-replay-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.server.setExecutor(executor);
+    this.server.createContext("/", this::handle);
+  }
+
+  /**
+   * This method starts a server which forwards requests to the real service and
+   * records every exchange. Recordings already in the directory are deleted, so
+   * a replay never mixes in exchanges of an older recording.
+   *
+   * @param targetBaseUri
+   *            base URI of the real service, e.g. https://api.example.com
+   * @param recordingDir
+   *            directory to save the recordings to
+   * @param port
+   *            local port, 0 for any free port
+   * @return started RecordReplayServer
+   * @throws IOException
+   *             if the server cannot be started
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static RecordReplayServer record(String targetBaseUri, String recordingDir, int port) throws IOException {
+    Path dir = Path.of(recordingDir);
+    Files.createDirectories(dir);
+    deleteRecordings(dir);
+    String base = targetBaseUri.endsWith("/")
+        ? targetBaseUri.substring(0, targetBaseUri.length() - 1)
+        : targetBaseUri;
+    RecordReplayServer recorder = new RecordReplayServer(URI.create(base), dir, port);
+    recorder.server.start();
+    Log.info("Recording traffic to " + base + " at " + recorder.getBaseUri() + " into " + dir);
+    return recorder;
+  }
+
+  /**
+   * This method starts a server which serves previously recorded exchanges
+   *
+   * @param recordingDir
+   *            directory containing the recordings
+   * @param port
+   *            local port, 0 for any free port
+   * @return started RecordReplayServer
+   * @throws IOException
+   *             if the recordings cannot be read or the server cannot be
+   *             started
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static RecordReplayServer replay(String recordingDir, int port) throws IOException {
+    RecordReplayServer replayer = new RecordReplayServer(null, Path.of(recordingDir), port);
+    replayer.loadRecordings();
+    replayer.server.start();
+    Log.info("Replaying recordings of " + replayer.recordings.size() + " distinct requests at "
+        + replayer.getBaseUri());
+    return replayer;
+  }
+
+  /**
+   * This method returns the base URI the tests should call
+   *
+   * @return base URI, e.g. http://127.0.0.1:54321
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getBaseUri() {
+    InetSocketAddress address = server.getAddress();
+    return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort();
+  }
+
+  /**
+   * This method checks whether the server is recording
+   *
+   * @return true in record mode, false in replay mode
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean isRecording() {
+    return target != null;
+  }
+
+  /**
+   * This method stops the server
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      byte[] requestBody = exchange.getRequestBody().readAllBytes();
+      String method = exchange.getRequestMethod().toUpperCase(Locale.ROOT);
+      URI requestUri = exchange.getRequestURI();
+      String uri = requestUri.getRawPath() + (requestUri.getRawQuery() == null ? "" : "?" + requestUri.getRawQuery());
+      String key = requestKey(method, uri, requestBody);
+      Exchange response;
+      try {
+        response = isRecording() ? forward(exchange, method, uri, key, requestBody) : lookup(key);
+      } catch (IOException e) {
+        Log.error("Unable to forward " + method + " " + uri + " to " + target, e);
+        exchange.sendResponseHeaders(502, -1);
+        return;
+      }
+      if (response == null) {
+        Log.warn("No recording for " + key);
+        exchange.getResponseHeaders().add("X-Replay-Miss", key);
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      response.headers().forEach((name, values) -> {
+        if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT)))
+          exchange.getResponseHeaders().put(name, values);
+      });
+      boolean noBody = response.body().length == 0 || method.equals("HEAD") || response.status() == 204
+          || response.status() == 304;
+      exchange.sendResponseHeaders(response.status(), noBody ? -1 : response.body().length);
+      if (!noBody) {
+        try (OutputStream body = exchange.getResponseBody()) {
+          body.write(response.body());
+        }
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private Exchange forward(HttpExchange exchange, String method, String uri, String key, byte[] requestBody)
+      throws IOException {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(target + uri)).method(method,
+        requestBody.length == 0
+            ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofByteArray(requestBody));
+    exchange.getRequestHeaders().forEach((name, values) -> {
+      if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT)))
+        values.forEach(value -> request.header(name, value));
+    });
+    HttpResponse<byte[]> upstream;
+    try {
+      upstream = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while forwarding " + method + " " + uri, e);
+    }
+    Map<String, List<String>> headers = new HashMap<>(upstream.headers().map());
+    headers.remove(":status");
+    Exchange recorded = new Exchange(key, method, uri, upstream.statusCode(), headers, upstream.body());
+    save(recorded);
+    return recorded;
+  }
+
+  private void save(Exchange exchange) throws IOException {
+    int sequence = sequences.computeIfAbsent(exchange.key(), k -> new AtomicInteger()).getAndIncrement();
+    byte[] json = MAPPER.writeValueAsBytes(exchange);
+    JsonFileWriter.write(recordingDir.resolve(fileName(exchange.key(), sequence)), outputStream -> outputStream
+        .write(json), true);
+  }
+
+  private Exchange lookup(String key) {
+    List<Exchange> candidates = recordings.get(key);
+    if (candidates == null)
+      return null;
+    int sequence = sequences.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+    return candidates.get(Math.min(sequence, candidates.size() - 1));
+  }
+
+  private void loadRecordings() throws IOException {
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(recordingDir)) {
+      files = stream.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX)).sorted().toList();
+    } catch (IOException e) {
+      throw new IOException("Unable to read recordings: " + recordingDir, e);
+    }
+    for (Path file : files) {
+      try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+        Exchange exchange = MAPPER.readValue(inputStream, Exchange.class);
+        recordings.computeIfAbsent(exchange.key(), k -> new ArrayList<>()).add(exchange);
+      } catch (IOException e) {
+        throw new IOException("Unable to read recording: " + file, e);
+      }
+    }
+  }
+
+  private static void deleteRecordings(Path dir) throws IOException {
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(dir)) {
+      files = stream.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX)).toList();
+    }
+    for (Path file : files) {
+      Files.delete(file);
+    }
+    if (!files.isEmpty())
+      Log.info("Deleted " + files.size() + " recordings of a previous run from " + dir);
+  }
+
+  private static String requestKey(String method, String uri, byte[] body) {
+    try {
+      return method + " " + uri + " " + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private static String fileName(String key, int sequence) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash, 0, 16) + "-" + String.format("%05d", sequence) + FILE_SUFFIX;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
@@ -0,0 +1,296 @@
+package io.github.the_sdet.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.the_sdet.json.JsonStreamReader;
+import io.github.the_sdet.logger.Log;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Streams large response bodies without buffering them in memory. A body is
+ * either transferred straight into a file through a {@link FileChannel}, or
+ * fed into {@link JsonStreamReader} so only the matched elements are
+ * materialised. In both cases a digest of the body is computed while it
+ * streams, so payload integrity can be asserted without a second pass. Memory
+ * use stays flat regardless of the body size.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ResponseStreamer {
+  private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+  private final HttpClient client;
+  private final String digestAlgorithm;
+
+  /**
+   * Outcome of a streamed response
+   *
+   * @param statusCode
+   *            response status code
+   * @param bytes
+   *            number of body bytes streamed
+   * @param digest
+   *            hex encoded digest of the body
+   * @param elements
+   *            number of JSON elements handed to the consumer, 0 for files
+   * @param file
+   *            file the body was written to, null for JSON streaming
+   */
+  public record Result(int statusCode, long bytes, String digest, long elements, Path file) {
+  }
+
+  /**
+   * Creates a streamer computing SHA-256 digests
+   *
+   * @param client
+   *            HTTP client used to send the requests
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseStreamer(HttpClient client) {
+    this(client, "SHA-256");
+  }
+
+  /**
+   * Creates a streamer
+   *
+   * @param client
+   *            HTTP client used to send the requests
+   * @param digestAlgorithm
+   *            MessageDigest algorithm, e.g. SHA-256 or MD5
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseStreamer(HttpClient client, String digestAlgorithm) {
+    this.client = client;
+    this.digestAlgorithm = digestAlgorithm;
+  }
+
+  /**
+   * This method writes a response body to a file. The body is written to a
+   * temporary file next to the target and moved over it once complete, so a
+   * failed download never leaves a truncated file behind.
+   *
+   * @param request
+   *            request to send
+   * @param filePath
+   *            file to write the body to
+   * @return Result with status, size and digest
+   * @throws IOException
+   *             if the request fails, the status is not 2xx or the file cannot
+   *             be written
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Result toFile(HttpRequest request, Path filePath) throws IOException {
+    long start = System.nanoTime();
+    // prepare the target first, a failure after sending would leak the open body
+    MessageDigest digest = newDigest();
+    Path directory = filePath.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path tempFile = createTempFile(directory, "." + filePath.getFileName());
+    long bytes = 0;
+    HttpResponse<InputStream> response;
+    try {
+      response = send(request);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(tempFile);
+      throw e;
+    }
+    try {
+      try (InputStream body = response.body();
+          ReadableByteChannel source = Channels.newChannel(new DigestInputStream(body, digest));
+          FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+        long transferred;
+        while ((transferred = target.transferFrom(source, bytes, TRANSFER_CHUNK)) > 0)
+          bytes += transferred;
+        target.force(false);
+      }
+      try {
+        Files.move(tempFile, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      Files.deleteIfExists(tempFile);
+      throw new IOException("Unable to download " + request.uri() + " to " + filePath, e);
+    } catch (RuntimeException e) {
+      Files.deleteIfExists(tempFile);
+      throw e;
+    }
+    logThroughput(request, bytes, start);
+    return new Result(response.statusCode(), bytes, HexFormat.of().formatHex(digest.digest()), 0, filePath);
+  }
+
+  /**
+   * This method streams the elements of a JSON response body matching a path to
+   * a consumer, see {@link JsonStreamReader} for the supported paths
+   *
+   * @param request
+   *            request to send
+   * @param elementPath
+   *            element path, e.g. $.items[*]
+   * @param consumer
+   *            receives each matching element
+   * @return Result with status, size, digest and element count
+   * @throws IOException
+   *             if the request fails, the status is not 2xx or the body is not
+   *             valid JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Result toJsonElements(HttpRequest request, String elementPath, Consumer<JsonNode> consumer)
+      throws IOException {
+    long start = System.nanoTime();
+    MessageDigest digest = newDigest();
+    HttpResponse<InputStream> response = send(request);
+    CountingInputStream body = new CountingInputStream(new DigestInputStream(response.body(), digest));
+    Stream<JsonNode> elementStream;
+    // the reader closes the body if it cannot create the stream, which must not drain it
+    body.drainOnClose = false;
+    try {
+      elementStream = JsonStreamReader.stream(body, elementPath);
+    } catch (IOException | RuntimeException e) {
+      body.close();
+      throw new IOException("Unable to stream JSON from " + request.uri(), e);
+    }
+    body.drainOnClose = true;
+    long elements = 0;
+    try (Stream<JsonNode> stream = elementStream) {
+      Iterator<JsonNode> iterator = stream.iterator();
+      try {
+        while (iterator.hasNext()) {
+          consumer.accept(iterator.next());
+          elements++;
+        }
+      } catch (RuntimeException e) {
+        body.drainOnClose = false;
+        throw e;
+      }
+    } catch (RuntimeException e) {
+      throw new IOException("Unable to stream JSON from " + request.uri(), e);
+    }
+    logThroughput(request, body.count, start);
+    return new Result(response.statusCode(), body.count, HexFormat.of().formatHex(digest.digest()), elements, null);
+  }
+
+  private HttpResponse<InputStream> send(HttpRequest request) throws IOException {
+    HttpResponse<InputStream> response;
+    try {
+      response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while requesting " + request.uri(), e);
+    }
+    if (response.statusCode() / 100 != 2) {
+      try (InputStream body = response.body()) {
+        byte[] excerpt = body.readNBytes(512);
+        throw new IOException("Unexpected status " + response.statusCode() + " from " + request.uri() + ": "
+            + new String(excerpt, StandardCharsets.UTF_8));
+      }
+    }
+    return response;
+  }
+
+  private MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(digestAlgorithm);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalArgumentException("Unknown digest algorithm: " + digestAlgorithm, e);
+    }
+  }
+
+  private static void logThroughput(HttpRequest request, long bytes, long startNanos) {
+    double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1_000_000_000.0;
+    Log.info(String.format("Streamed %d bytes from %s in %.2f s (%.1f MB/s)", bytes, request.uri(), seconds,
+        bytes / seconds / (1024 * 1024)));
+  }
+
+  /**
+   * Counts the bytes read and, when closed by the JSON parser, reads the rest of
+   * the body so the digest covers all of it
+   */
+  private static final class CountingInputStream extends FilterInputStream {
+    private long count;
+    private boolean drainOnClose = true;
+
+    private CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value != -1)
+        count++;
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read > 0)
+        count += read;
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (drainOnClose) {
+          drainOnClose = false;
+          transferTo(OutputStream.nullOutputStream());
+        }
+      } finally {
+        super.close();
+      }
+    }
+  }
+
+  /**
+   * This method creates an empty temporary file with the default permissions of
+   * the process (umask), which the downloaded file keeps when moved over the
+   * target. {@link Files#createTempFile(Path, String, String,
+   * java.nio.file.attribute.FileAttribute[])} would make it readable by its
+   * owner only.
+   *
+   * @param directory
+   *            directory to create the file in
+   * @param prefix
+   *            file name prefix
+   * @return path of the created file
+   * @throws IOException
+   *             if the file could not be created
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static Path createTempFile(Path directory, String prefix) throws IOException {
+    while (true) {
+      Path temp = directory.resolve(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+      try {
+        return Files.createFile(temp);
+      } catch (FileAlreadyExistsException e) {
+        // name taken, try another one
+      }
+    }
+  }
+}
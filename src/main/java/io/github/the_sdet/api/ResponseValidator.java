@@ -0,0 +1,293 @@
+package io.github.the_sdet.api;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import io.github.the_sdet.json.JSONUtils;
+import io.github.the_sdet.json.JsonDocument;
+import io.github.the_sdet.json.JsonPathCache;
+import io.github.the_sdet.json.JsonSchemaValidator;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Validates a response in one pass. The body is parsed once into a
+ * {@link JsonDocument} which every path and schema check then reads, instead of
+ * each check parsing the body again. Checks are collected first and run
+ * together by {@link #validate()}, which reports all failures in a single
+ * AssertionError rather than stopping at the first one.
+ * <p>
+ * Example:
+ *
+ * <pre>
+ * JsonDocument order = APIUtils.validate(response).statusCode(200).header("Content-Type", "application/json")
+ *     .path("$.status", "CONFIRMED").pathExists("$.id").schema("schemas/order.json").validate();
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class ResponseValidator {
+  private final Response response;
+  private final List<Consumer<List<String>>> checks = new ArrayList<>();
+  private JsonDocument document;
+  private String parseError;
+
+  /**
+   * Creates a validator for a response
+   *
+   * @param response
+   *            response to validate
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseValidator(Response response) {
+    this.response = response;
+  }
+
+  /**
+   * This method checks the status code
+   *
+   * @param expected
+   *            expected status code
+   * @return this ResponseValidator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseValidator statusCode(int expected) {
+    checks.add(failures -> {
+      if (response.getStatusCode() != expected)
+        failures.add("Expected status " + expected + " but was " + response.getStatusCode());
+    });
+    return this;
+  }
+
+  /**
+   * This method checks that a header is present
+   *
+   * @param name
+   *            header name
+   * @return this ResponseValidator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseValidator headerExists(String name) {
+    checks.add(failures -> {
+      if (!response.getHeaders().hasHeaderWithName(name))
+        failures.add("Expected header " + name + " to be present");
+    });
+    return this;
+  }
+
+  /**
+   * This method checks the value of a header. For Content-Type, parameters such
+   * as the charset are ignored unless they are part of the expected value.
+   *
+   * @param name
+   *            header name
+   * @param expected
+   *            expected header value
+   * @return this ResponseValidator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseValidator header(String name, String expected) {
+    checks.add(failures -> {
+      String actual = response.getHeader(name);
+      boolean matches = actual != null && (actual.equals(expected)
+          || (name.equalsIgnoreCase("Content-Type") && actual.split(";")[0].trim().equalsIgnoreCase(expected)));
+      if (!matches)
+        failures.add("Expected header " + name + " to be '" + expected + "' but was '" + actual + "'");
+    });
+    return this;
+  }
+
+  /**
+   * This method checks that an element exists in the JSON body. For an
+   * indefinite path, e.g. $.items[?(@.id == 1)], at least one element must
+   * match.
+   *
+   * @param elementPath
+   *            element path, e.g. $.id
+   * @return this ResponseValidator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseValidator pathExists(String elementPath) {
+    checks.add(failures -> {
+      JsonDocument json = document(failures);
+      if (json == null)
+        return;
+      JsonPath path = JsonPathCache.compile(elementPath);
+      boolean exists;
+      try {
+        Object value = json.read(path);
+        exists = path.isDefinite() || !(value instanceof List<?> matches) || !matches.isEmpty();
+      } catch (PathNotFoundException e) {
+        exists = false;
+      }
+      if (!exists)
+        failures.add("Expected element " + elementPath + " to exist");
+    });
+    return this;
+  }
+
+  /**
+   * This method checks the value of an element in the JSON body. Numbers are
+   * compared by value, so 5, 5L and 5.0 are equal.
+   *
+   * @param elementPath
+   *            element path, e.g. $.status
+   * @param expected
+   *            expected value
+   * @return this ResponseValidator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseValidator path(String elementPath, Object expected) {
+    return path(elementPath, actual -> valuesEqual(expected, actual), "to be " + expected);
+  }
+
+  /**
+   * This method checks the value of an element in the JSON body against a
+   * condition
+   *
+   * @param elementPath
+   *            element path, e.g. $.items.length()
+   * @param condition
+   *            condition on the value, a missing element is passed as null
+   * @param description
+   *            description of the condition used in the failure message, e.g.
+   *            "to be positive"
+   * @return this ResponseValidator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseValidator path(String elementPath, Predicate<Object> condition, String description) {
+    checks.add(failures -> {
+      JsonDocument json = document(failures);
+      if (json == null)
+        return;
+      Object actual;
+      try {
+        actual = json.read(elementPath);
+      } catch (PathNotFoundException e) {
+        actual = null;
+      }
+      if (!condition.test(actual))
+        failures.add("Expected " + elementPath + " " + description + " but was " + actual);
+    });
+    return this;
+  }
+
+  /**
+   * This method checks the JSON body against a JSON schema file. All schema
+   * violations are reported.
+   *
+   * @param schemaFilePath
+   *            path of the JSON schema file
+   * @return this ResponseValidator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ResponseValidator schema(String schemaFilePath) {
+    checks.add(failures -> {
+      JsonDocument json = document(failures);
+      if (json == null)
+        return;
+      try {
+        for (String violation : JsonSchemaValidator.validate(json, schemaFilePath,
+            JsonSchemaValidator.Mode.COLLECT_ALL))
+          failures.add("Schema " + schemaFilePath + ": " + violation);
+      } catch (IOException e) {
+        failures.add("Unable to read schema " + schemaFilePath + ": " + e.getMessage());
+      }
+    });
+    return this;
+  }
+
+  /**
+   * This method runs all checks
+   *
+   * @return the parsed JSON body for further extraction, null if no check
+   *         needed it and the body was not parsed
+   * @throws AssertionError
+   *             listing every failed check
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public JsonDocument validate() {
+    List<String> failures = new ArrayList<>();
+    for (Consumer<List<String>> check : checks)
+      check.accept(failures);
+    if (!failures.isEmpty()) {
+      StringBuilder message = new StringBuilder("Response validation failed with ").append(failures.size())
+          .append(failures.size() == 1 ? " failure:" : " failures:");
+      for (String failure : failures)
+        message.append(System.lineSeparator()).append("  - ").append(failure);
+      throw new AssertionError(message.toString());
+    }
+    return document;
+  }
+
+  /**
+   * This method returns the JSON body, parsing it on first use
+   *
+   * @return parsed JSON body
+   * @throws IllegalStateException
+   *             if the body is not valid JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public JsonDocument getDocument() {
+    List<String> failures = new ArrayList<>();
+    JsonDocument json = document(failures);
+    if (json == null)
+      throw new IllegalStateException(failures.get(0));
+    return json;
+  }
+
+  private JsonDocument document(List<String> failures) {
+    if (document == null && parseError == null) {
+      try {
+        document = JSONUtils.parse(response.asByteArray(), charset());
+      } catch (RuntimeException e) {
+        parseError = "Response body is not valid JSON: " + e.getMessage();
+      }
+    }
+    if (document == null && !failures.contains(parseError))
+      failures.add(parseError);
+    return document;
+  }
+
+  /**
+   * This method returns the charset of the Content-Type header
+   *
+   * @return charset of the body, or null if none or an unknown one is declared
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private Charset charset() {
+    String contentType = response.getContentType();
+    if (contentType == null)
+      return null;
+    for (String parameter : contentType.split(";")) {
+      String[] pair = parameter.trim().split("=", 2);
+      if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("charset")) {
+        try {
+          return Charset.forName(pair[1].trim().replace("\"", ""));
+        } catch (IllegalArgumentException e) {
+          return null;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean valuesEqual(Object expected, Object actual) {
+    if (expected instanceof Number && actual instanceof Number) {
+      try {
+        return new BigDecimal(expected.toString()).compareTo(new BigDecimal(actual.toString())) == 0;
+      } catch (NumberFormatException e) {
+        return expected.toString().equals(actual.toString());
+      }
+    }
+    return Objects.equals(expected, actual);
+  }
+}
@@ -0,0 +1,120 @@
+package io.github.the_sdet.api;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Describes when and how often a failed API call is retried. Only idempotent
+ * methods (GET, HEAD, OPTIONS, PUT, DELETE) are retried, so a request with side
+ * effects is never sent twice. A call is retried when it throws, e.g. on a
+ * connection reset, or when the response status is one of the retryable
+ * statuses (by default 429, 502, 503 and 504). Attempts are spaced with
+ * exponential backoff and jitter.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class RetryPolicy {
+  private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+  private int maxAttempts = 3;
+  private Duration initialBackoff = Duration.ofMillis(200);
+  private Duration maxBackoff = Duration.ofSeconds(5);
+  private Set<Integer> retryableStatuses = Set.of(429, 502, 503, 504);
+
+  /**
+   * This method sets the total number of attempts including the first one
+   *
+   * @param maxAttempts
+   *            maximum attempts, 3 by default
+   * @return this RetryPolicy
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public RetryPolicy maxAttempts(int maxAttempts) {
+    if (maxAttempts < 1)
+      throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+    this.maxAttempts = maxAttempts;
+    return this;
+  }
+
+  /**
+   * This method sets the backoff between attempts. The delay starts at the
+   * initial backoff and doubles after each attempt up to the maximum.
+   *
+   * @param initialBackoff
+   *            delay before the first retry, 200 ms by default
+   * @param maxBackoff
+   *            maximum delay, 5 seconds by default
+   * @return this RetryPolicy
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public RetryPolicy backoff(Duration initialBackoff, Duration maxBackoff) {
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    return this;
+  }
+
+  /**
+   * This method sets the response statuses which are retried
+   *
+   * @param statuses
+   *            retryable statuses, 429, 502, 503 and 504 by default
+   * @return this RetryPolicy
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public RetryPolicy retryOnStatus(Integer... statuses) {
+    this.retryableStatuses = Set.of(statuses);
+    return this;
+  }
+
+  /**
+   * This method returns the total number of attempts
+   *
+   * @return maximum attempts
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * This method checks whether a request method may be retried
+   *
+   * @param method
+   *            request method
+   * @return true for idempotent methods
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean isRetryable(String method) {
+    return IDEMPOTENT_METHODS.contains(method.toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * This method checks whether a response status is retried
+   *
+   * @param statusCode
+   *            response status
+   * @return true if the status is retryable
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean isRetryable(int statusCode) {
+    return retryableStatuses.contains(statusCode);
+  }
+
+  /**
+   * This method returns the delay before a retry, with equal jitter applied
+   *
+   * @param attempt
+   *            number of the attempt which failed, starting at 1
+   * @return delay before the next attempt
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Duration getBackoff(int attempt) {
+    long backoff = initialBackoff.toNanos();
+    for (int i = 1; i < attempt && backoff < maxBackoff.toNanos(); i++)
+      backoff *= 2;
+    backoff = Math.min(backoff, maxBackoff.toNanos());
+    return Duration.ofNanos(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+  }
+}
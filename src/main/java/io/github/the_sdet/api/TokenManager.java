@@ -0,0 +1,345 @@
+package io.github.the_sdet.api;
+
+import com.jayway.jsonpath.PathNotFoundException;
+import io.github.the_sdet.json.JSONUtils;
+import io.github.the_sdet.json.JsonDocument;
+import io.github.the_sdet.logger.Log;
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches auth tokens per credential and scope and shares them between threads.
+ * Concurrent callers asking for a token which is not cached yet share a single
+ * fetch (single-flight), so a burst of parallel tests results in one request
+ * to the identity provider. Once fetched, a token is refreshed in the
+ * background shortly before it expires and swapped in atomically, so request
+ * threads only ever wait for the very first fetch of a credential.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class TokenManager implements AutoCloseable {
+  private static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofSeconds(60);
+  private static final Duration MIN_RETRY_DELAY = Duration.ofSeconds(1);
+  private final TokenFetcher fetcher;
+  private final Duration refreshAhead;
+  private final Clock clock;
+  private final Map<String, CompletableFuture<Token>> tokens = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService scheduler;
+  private final LongAdder fetches = new LongAdder();
+
+  /**
+   * Token with its expiry
+   *
+   * @param value
+   *            token value, e.g. the OAuth access token
+   * @param expiresAt
+   *            expiry time of the token
+   */
+  public record Token(String value, Instant expiresAt) {
+    boolean isValid(Clock clock) {
+      return clock.instant().isBefore(expiresAt);
+    }
+  }
+
+  /**
+   * Fetches a new token from the identity provider
+   */
+  @FunctionalInterface
+  public interface TokenFetcher {
+    /**
+     * Fetches a token
+     *
+     * @param credential
+     *            credential identifier, e.g. the client id
+     * @param scope
+     *            requested scope
+     * @return fetched Token
+     * @throws Exception
+     *             if the token cannot be fetched
+     */
+    Token fetch(String credential, String scope) throws Exception;
+  }
+
+  /**
+   * Creates a token manager refreshing tokens 60 seconds before expiry
+   *
+   * @param fetcher
+   *            fetches new tokens
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public TokenManager(TokenFetcher fetcher) {
+    this(fetcher, DEFAULT_REFRESH_AHEAD);
+  }
+
+  /**
+   * Creates a token manager
+   *
+   * @param fetcher
+   *            fetches new tokens
+   * @param refreshAhead
+   *            how long before expiry a token is refreshed in the background,
+   *            at most half of the token lifetime
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public TokenManager(TokenFetcher fetcher, Duration refreshAhead) {
+    this(fetcher, refreshAhead, Clock.systemUTC(), newScheduler());
+  }
+
+  /**
+   * Creates a token manager with the given time source and scheduler, e.g. to
+   * drive the background refresh step by step in tests
+   *
+   * @param fetcher
+   *            fetches new tokens
+   * @param refreshAhead
+   *            how long before expiry a token is refreshed in the background,
+   *            at most half of the token lifetime
+   * @param clock
+   *            time source the token expiry is checked against
+   * @param scheduler
+   *            runs the fetches and schedules the refreshes, shut down on close
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  TokenManager(TokenFetcher fetcher, Duration refreshAhead, Clock clock, ScheduledExecutorService scheduler) {
+    this.fetcher = fetcher;
+    this.refreshAhead = refreshAhead;
+    this.clock = clock;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * This method creates a fetcher for the OAuth 2.0 client credentials grant.
+   * The credential passed to the manager is the client id.
+   *
+   * @param tokenUrl
+   *            token endpoint of the identity provider
+   * @param clientSecrets
+   *            Map of client id to client secret
+   * @return TokenFetcher object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static TokenFetcher clientCredentials(String tokenUrl, Map<String, String> clientSecrets) {
+    return (clientId, scope) -> {
+      String clientSecret = clientSecrets.get(clientId);
+      if (clientSecret == null)
+        throw new IllegalArgumentException("No client secret configured for " + clientId);
+      var request = RestAssured.given().config(APIUtils.getConfig()).formParam("grant_type", "client_credentials")
+          .formParam("client_id", clientId).formParam("client_secret", clientSecret);
+      if (scope != null && !scope.isEmpty())
+        request.formParam("scope", scope);
+      Response response = request.post(tokenUrl);
+      if (response.getStatusCode() != 200)
+        throw new IllegalStateException("Token request for " + clientId + " failed with status "
+            + response.getStatusCode() + ": " + response.asString());
+      JsonDocument document = JSONUtils.parse(response.asString());
+      long expiresIn;
+      try {
+        expiresIn = document.getLong("$.expires_in");
+      } catch (PathNotFoundException e) {
+        expiresIn = 3600;
+      }
+      return new Token(document.getElement("$.access_token"), Instant.now().plusSeconds(expiresIn));
+    };
+  }
+
+  /**
+   * This method returns a valid token, fetching it if it is not cached yet
+   *
+   * @param credential
+   *            credential identifier, e.g. the client id
+   * @param scope
+   *            requested scope
+   * @return token value
+   * @throws IllegalStateException
+   *             if the token cannot be fetched
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getToken(String credential, String scope) {
+    try {
+      return getTokenAsync(credential, scope).join().value();
+    } catch (CompletionException e) {
+      throw new IllegalStateException("Unable to fetch token for " + credential + " / " + scope, e.getCause());
+    }
+  }
+
+  /**
+   * This method returns a future of a valid token. The future is already
+   * completed when the token is cached.
+   *
+   * @param credential
+   *            credential identifier, e.g. the client id
+   * @param scope
+   *            requested scope
+   * @return CompletableFuture of the Token
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public CompletableFuture<Token> getTokenAsync(String credential, String scope) {
+    String key = key(credential, scope);
+    CompletableFuture<Token> current = tokens.get(key);
+    if (current != null && isUsable(current))
+      return current;
+    return tokens.compute(key, (k, existing) -> existing != null && isUsable(existing)
+        ? existing
+        : fetch(credential, scope));
+  }
+
+  /**
+   * This method returns a RestAssured filter which sends the token as bearer
+   * Authorization header. A 401 response drops the cached token so the next
+   * request uses a fresh one.
+   *
+   * @param credential
+   *            credential identifier, e.g. the client id
+   * @param scope
+   *            requested scope
+   * @return Filter to add to a request or RequestSpecBuilder
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Filter bearerAuth(String credential, String scope) {
+    return (requestSpec, responseSpec, context) -> {
+      requestSpec.replaceHeader("Authorization", "Bearer " + getToken(credential, scope));
+      Response response = context.next(requestSpec, responseSpec);
+      if (response.getStatusCode() == 401)
+        invalidate(credential, scope);
+      return response;
+    };
+  }
+
+  /**
+   * This method drops a cached token, e.g. after the server rejected it. The
+   * next call fetches a new one.
+   *
+   * @param credential
+   *            credential identifier
+   * @param scope
+   *            scope of the token
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void invalidate(String credential, String scope) {
+    tokens.remove(key(credential, scope));
+  }
+
+  /**
+   * This method returns how many tokens have been fetched, including background
+   * refreshes
+   *
+   * @return fetch count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long getFetchCount() {
+    return fetches.sum();
+  }
+
+  /**
+   * This method stops the background refresh
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  private CompletableFuture<Token> fetch(String credential, String scope) {
+    CompletableFuture<Token> future = CompletableFuture.supplyAsync(() -> fetchNow(credential, scope), scheduler);
+    future.whenCompleteAsync((token, error) -> {
+      if (error == null)
+        scheduleRefresh(credential, scope, future, token);
+      else
+        tokens.remove(key(credential, scope), future);
+    }, scheduler);
+    return future;
+  }
+
+  private Token fetchNow(String credential, String scope) {
+    fetches.increment();
+    try {
+      Token token = fetcher.fetch(credential, scope);
+      Log.debug("Fetched token for " + credential + " / " + scope + ", expires at " + token.expiresAt());
+      return token;
+    } catch (Exception e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  /**
+   * This method schedules the background refresh of a token. Tokens are
+   * refreshed refreshAhead before expiry, but no earlier than halfway through
+   * their lifetime, so short-lived tokens are not refetched over and over.
+   *
+   * @param credential
+   *            credential identifier
+   * @param scope
+   *            scope of the token
+   * @param current
+   *            cached future holding the token
+   * @param token
+   *            token to refresh
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private void scheduleRefresh(String credential, String scope, CompletableFuture<Token> current, Token token) {
+    Duration lifetime = Duration.between(clock.instant(), token.expiresAt());
+    Duration lead = refreshAhead.compareTo(lifetime.dividedBy(2)) < 0 ? refreshAhead : lifetime.dividedBy(2);
+    Duration delay = lifetime.minus(lead);
+    if (delay.compareTo(MIN_RETRY_DELAY) < 0)
+      delay = MIN_RETRY_DELAY;
+    if (scheduler.isShutdown())
+      return;
+    scheduler.schedule(() -> refresh(credential, scope, current, token), delay.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void refresh(String credential, String scope, CompletableFuture<Token> current, Token token) {
+    String key = key(credential, scope);
+    if (tokens.get(key) != current)
+      return;
+    try {
+      Token refreshed = fetchNow(credential, scope);
+      CompletableFuture<Token> next = CompletableFuture.completedFuture(refreshed);
+      if (tokens.replace(key, current, next))
+        scheduleRefresh(credential, scope, next, refreshed);
+    } catch (CompletionException e) {
+      Log.warn("Background token refresh for " + credential + " / " + scope + " failed: " + e.getCause());
+      if (token.isValid(clock)) {
+        Duration remaining = Duration.between(clock.instant(), token.expiresAt());
+        scheduler.schedule(() -> refresh(credential, scope, current, token),
+            Math.max(MIN_RETRY_DELAY.toMillis(), remaining.toMillis() / 2), TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  private boolean isUsable(CompletableFuture<Token> future) {
+    if (!future.isDone())
+      return true;
+    if (future.isCompletedExceptionally())
+      return false;
+    return future.join().isValid(clock);
+  }
+
+  private static ScheduledExecutorService newScheduler() {
+    AtomicInteger counter = new AtomicInteger();
+    return Executors.newScheduledThreadPool(2, runnable -> {
+      Thread thread = new Thread(runnable, "token-manager-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private static String key(String credential, String scope) {
+    return credential + '\u0000' + scope;
+  }
+}
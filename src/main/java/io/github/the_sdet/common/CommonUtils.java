@@ -35,4 +35,22 @@ public class CommonUtils {
   public static int getIntegerValue(String elementText) {
     return (int) Double.parseDouble(elementText.replaceAll("[^\\d.]", EMPTY_STRING));
   }
+
+  /**
+   * This method quotes a CSV field if it contains a separator, quote or line
+   * break. E.g., a "b",c will return "a ""b"",c"
+   *
+   * @param value
+   *            field value
+   * @return CSV safe field value
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String escapeCsv(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r')
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    return value;
+  }
 }
@@ -0,0 +1,61 @@
+package io.github.the_sdet.db;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * JUnit 5 extension which wraps every test in a transactional fixture of a
+ * {@link DatabaseUtils} object. A transaction (or a savepoint, if a transaction
+ * is already open) is started before each test and rolled back after it, so
+ * every test starts from the seeded state without truncating and re-inserting
+ * data.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * &#64;RegisterExtension
+ * static DatabaseTransactionExtension transaction = new DatabaseTransactionExtension(databaseUtils);
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class DatabaseTransactionExtension implements BeforeEachCallback, AfterEachCallback {
+  private final DatabaseUtils databaseUtils;
+
+  /**
+   * Initializes the extension
+   *
+   * @param databaseUtils
+   *            DatabaseUtils object through which the tests read and write
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public DatabaseTransactionExtension(DatabaseUtils databaseUtils) {
+    this.databaseUtils = databaseUtils;
+  }
+
+  /**
+   * Starts the transactional fixture before each test
+   *
+   * @param context
+   *            JUnit extension context
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public void beforeEach(ExtensionContext context) {
+    databaseUtils.beginTransactionalFixture();
+  }
+
+  /**
+   * Rolls back the transactional fixture after each test
+   *
+   * @param context
+   *            JUnit extension context
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public void afterEach(ExtensionContext context) {
+    databaseUtils.rollbackTransactionalFixture();
+  }
+}
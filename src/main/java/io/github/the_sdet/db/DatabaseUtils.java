@@ -1,12 +1,31 @@
 package io.github.the_sdet.db;
 
 import io.github.the_sdet.logger.Log;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
+import javax.sql.DataSource;
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPOutputStream;
+
+import static io.github.the_sdet.common.CommonUtils.EMPTY_STRING;
+import static io.github.the_sdet.common.CommonUtils.escapeCsv;
 
 /**
  * This is a utility class to handle all the database querying operations needed
@@ -16,8 +35,14 @@ import java.util.UUID;
  */
 @SuppressWarnings("unused")
 public class DatabaseUtils {
+  private static final int EXPORT_FETCH_SIZE = 1000;
+  private static final int EXPORT_ROW_WINDOW = 500;
+  private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
   private final Connection connection;
   private Statement statement;
+  private boolean fixtureActive;
+  private boolean fixtureAutoCommit;
+  private Savepoint fixtureSavepoint;
 
   /**
    * Initializes Database utils
@@ -31,18 +56,64 @@ public class DatabaseUtils {
   }
 
   /**
-   * This method establishes a connection to Database if the connection is NOT yet
-   * established
+   * This method enables or disables leak detection for the statements and
+   * result-sets created by DatabaseUtils. When enabled, the allocation stack
+   * trace of every statement and result-set is recorded so that
+   * {@link #reportUnclosedResources()} can point to the code that left them
+   * open. Leak detection can also be enabled with the system property
+   * {@code db.leak.detection=true}.
    *
+   * @param enabled
+   *            true to enable leak detection
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
-  private void initializeConnectionToDb() {
-    try {
+  public static void setLeakDetection(boolean enabled) {
+    ResourceTracker.setEnabled(enabled);
+  }
+
+  /**
+   * This method logs every statement and result-set which is still open along
+   * with the stack trace of where it was created. Only resources created while
+   * leak detection was enabled are reported.
+   *
+   * @return number of unclosed resources
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static int reportUnclosedResources() {
+    return ResourceTracker.report();
+  }
+
+  /**
+   * This method returns the statement reused for all queries on this connection,
+   * creating it on first use. Reuse is safe because every query fully consumes
+   * and closes its result-set before the next one is executed on the statement.
+   *
+   * @return shared Statement object
+   * @throws SQLException
+   *             if the statement could not be created
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private Statement getStatement() throws SQLException {
+    if (statement == null || statement.isClosed()) {
       assert connection != null;
-      statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
-    } catch (SQLException e) {
-      Log.error("Exception creating statement using connection object passed...", e);
+      statement = ResourceTracker.track(
+          connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
     }
+    return statement;
+  }
+
+  /**
+   * This method executes an SQL query on the shared statement
+   *
+   * @param sql
+   *            sql statement to query the DB
+   * @return ResultSet object which has to be closed by the caller
+   * @throws SQLException
+   *             if the query failed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private ResultSet executeQuery(String sql) throws SQLException {
+    return ResourceTracker.track(getStatement().executeQuery(sql));
   }
 
   /**
@@ -51,6 +122,14 @@ public class DatabaseUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public void closeDatabaseConnection() {
+    if (statement != null) {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        Log.error("Error closing the DB statement...", e);
+      }
+      statement = null;
+    }
     if (connection != null) {
       try {
         connection.close();
@@ -72,16 +151,12 @@ public class DatabaseUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public List<LinkedHashMap<String, String>> readDataFromDbWithColumnNames(String sql) {
-    initializeConnectionToDb();
-    assert statement != null;
-    ResultSet resultSet = null;
-    try {
-      resultSet = statement.executeQuery(sql);
+    try (ResultSet resultSet = executeQuery(sql)) {
+      return readResultSetWithColumnNames(resultSet);
     } catch (SQLException e) {
       Log.error("Error executing the query: " + sql + "\n", e);
     }
-    assert resultSet != null;
-    return readResultSetWithColumnNames(resultSet);
+    return new ArrayList<>();
   }
 
   /**
@@ -94,15 +169,12 @@ public class DatabaseUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public List<List<String>> readDataFromDb(String sql) {
-    initializeConnectionToDb();
-    ResultSet resultSet = null;
-    try {
-      resultSet = statement.executeQuery(sql);
+    try (ResultSet resultSet = executeQuery(sql)) {
+      return readResultSet(resultSet);
     } catch (SQLException e) {
       Log.error("Error executing the query: " + sql + "\n", e);
     }
-    assert resultSet != null;
-    return readResultSet(resultSet);
+    return new ArrayList<>();
   }
 
   /**
@@ -134,7 +206,7 @@ public class DatabaseUtils {
       Log.error("No records fetched from DB for query: " + sql);
       return new ArrayList<>();
     } else
-      return readDataFromDb(sql).get(0);
+      return dataFromDb.get(0);
   }
 
   /**
@@ -148,7 +220,7 @@ public class DatabaseUtils {
    */
   public String readSingleDataFromDb(String sql) {
     List<String> dataFromDb = readSingleRowFromDb(sql);
-    return dataFromDb.isEmpty() ? null : readSingleRowFromDb(sql).get(0);
+    return dataFromDb.isEmpty() ? null : dataFromDb.get(0);
   }
 
   /**
@@ -169,6 +241,330 @@ public class DatabaseUtils {
     return valuesFromSingleColumn;
   }
 
+  /**
+   * This method reads a full table in parallel. The range of the split column is
+   * computed with MIN/MAX, divided into equal key ranges and each range is read
+   * on its own connection taken from the data source, so a pooled data source
+   * should be used. Rows with a NULL split column are read by an extra shard.
+   * Shard results are merged in key-range order and the timing of every shard is
+   * logged. The whole table is held in memory, use
+   * {@link #readTableInParallel(DataSource, String, String, int, Consumer)} for
+   * large tables.
+   *
+   * @param dataSource
+   *            data source handing out connections for the shards
+   * @param table
+   *            table name
+   * @param splitColumn
+   *            numeric or date/time column to split the table on, ideally
+   *            indexed
+   * @param parallelism
+   *            number of key ranges read concurrently
+   * @return A list of rows are returned where each row is returned as a List
+   * @throws IllegalArgumentException
+   *             if the split column is neither numeric nor date/time
+   * @throws IllegalStateException
+   *             if the range or any shard could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<List<String>> readTableInParallel(DataSource dataSource, String table, String splitColumn,
+      int parallelism) {
+    List<List<List<String>>> shardRows = new ArrayList<>();
+    readShards(dataSource, table, splitColumn, parallelism, shard -> {
+      List<List<String>> rows = new ArrayList<>();
+      shardRows.add(rows);
+      return rows::add;
+    });
+    List<List<String>> result = new ArrayList<>();
+    shardRows.forEach(result::addAll);
+    return result;
+  }
+
+  /**
+   * This method reads a full table in parallel like
+   * {@link #readTableInParallel(DataSource, String, String, int)} but hands every
+   * row to a consumer as soon as it is read instead of collecting the table in
+   * memory. Rows arrive in no particular order across shards. Calls to the
+   * consumer are serialized, so it does not need to be thread-safe.
+   *
+   * @param dataSource
+   *            data source handing out connections for the shards
+   * @param table
+   *            table name
+   * @param splitColumn
+   *            numeric or date/time column to split the table on, ideally
+   *            indexed
+   * @param parallelism
+   *            number of key ranges read concurrently
+   * @param rowConsumer
+   *            receives every row as a List
+   * @return number of rows read
+   * @throws IllegalArgumentException
+   *             if the split column is neither numeric nor date/time
+   * @throws IllegalStateException
+   *             if the range or any shard could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long readTableInParallel(DataSource dataSource, String table, String splitColumn, int parallelism,
+      Consumer<List<String>> rowConsumer) {
+    Object lock = new Object();
+    return readShards(dataSource, table, splitColumn, parallelism, shard -> row -> {
+      synchronized (lock) {
+        rowConsumer.accept(row);
+      }
+    });
+  }
+
+  /**
+   * This method executes an SQL insert, update, delete or DDL statement
+   *
+   * @param sql
+   *            sql statement to execute
+   * @return number of rows affected, -1 if the statement failed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int executeUpdate(String sql) {
+    try {
+      return getStatement().executeUpdate(sql);
+    } catch (SQLException e) {
+      Log.error("Error executing the statement: " + sql + "\n", e);
+      return -1;
+    }
+  }
+
+  /**
+   * This method starts a transactional fixture on the connection. If the
+   * connection is in auto-commit mode a new transaction is started, otherwise a
+   * savepoint is set inside the transaction that is already open. All reads and
+   * writes made through this object until
+   * {@link #rollbackTransactionalFixture()} see the changes made by the test, and
+   * the rollback restores the state the fixture started from.
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void beginTransactionalFixture() {
+    if (fixtureActive) {
+      Log.warn("Transactional fixture already active, rolling back the previous one...");
+      rollbackTransactionalFixture();
+    }
+    try {
+      assert connection != null;
+      fixtureAutoCommit = connection.getAutoCommit();
+      if (fixtureAutoCommit) {
+        connection.setAutoCommit(false);
+        fixtureSavepoint = null;
+      } else {
+        fixtureSavepoint = connection.setSavepoint();
+      }
+      fixtureActive = true;
+      Log.debug("Transactional fixture started" + (fixtureSavepoint == null ? "..." : " at savepoint..."));
+    } catch (SQLException e) {
+      Log.error("Error starting the transactional fixture...", e);
+    }
+  }
+
+  /**
+   * This method rolls back everything done since
+   * {@link #beginTransactionalFixture()} and restores the original auto-commit
+   * mode of the connection
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void rollbackTransactionalFixture() {
+    if (!fixtureActive)
+      return;
+    try {
+      if (fixtureSavepoint != null) {
+        // not released: Oracle has no releaseSavepoint, the savepoint ends with
+        // the surrounding transaction anyway
+        connection.rollback(fixtureSavepoint);
+      } else {
+        connection.rollback();
+        connection.setAutoCommit(fixtureAutoCommit);
+      }
+      Log.debug("Transactional fixture rolled back...");
+    } catch (SQLException e) {
+      Log.error("Error rolling back the transactional fixture...", e);
+    } finally {
+      fixtureActive = false;
+      fixtureSavepoint = null;
+    }
+  }
+
+  /**
+   * This method tells whether a transactional fixture is currently active
+   *
+   * @return true if a transactional fixture is active
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean isTransactionalFixtureActive() {
+    return fixtureActive;
+  }
+
+  /**
+   * This method executes an SQL query and streams the result to a CSV file. The
+   * rows are read through a streaming cursor and written straight to a buffered
+   * writer, so memory use stays flat regardless of the row count. See
+   * {@link #streamQuery(String, CursorHandler)} for how streaming is set up per
+   * database.
+   *
+   * @param sql
+   *            sql statement to query the DB
+   * @param filePath
+   *            CSV file path
+   * @param gzip
+   *            true if the file is to be gzip compressed
+   * @return number of rows exported
+   * @throws IOException
+   *             if the file could not be written
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long exportToCsv(String sql, String filePath, boolean gzip) throws IOException {
+    long start = System.nanoTime();
+    long rows = 0;
+    try (Writer writer = openExportWriter(filePath, gzip)) {
+      rows = streamQuery(sql, resultSet -> {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+        for (int i = 1; i <= columns; i++) {
+          if (i > 1)
+            writer.write(',');
+          writer.write(escapeCsv(metaData.getColumnName(i)));
+        }
+        writer.write('\n');
+        long count = 0;
+        while (resultSet.next()) {
+          for (int i = 1; i <= columns; i++) {
+            if (i > 1)
+              writer.write(',');
+            Object value = readColumnValue(resultSet, metaData, i);
+            if (value != null)
+              writer.write(escapeCsv(value.toString()));
+          }
+          writer.write('\n');
+          count++;
+        }
+        return count;
+      });
+    } catch (SQLException e) {
+      Log.error("Error exporting the query: " + sql + "\n", e);
+    }
+    logExportThroughput(filePath, rows, start);
+    return rows;
+  }
+
+  /**
+   * This method executes an SQL query and streams the result to a newline
+   * delimited JSON file, one JSON object per row with column names as keys.
+   *
+   * @param sql
+   *            sql statement to query the DB
+   * @param filePath
+   *            NDJSON file path
+   * @param gzip
+   *            true if the file is to be gzip compressed
+   * @return number of rows exported
+   * @throws IOException
+   *             if the file could not be written
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long exportToNdjson(String sql, String filePath, boolean gzip) throws IOException {
+    long start = System.nanoTime();
+    long rows = 0;
+    try (Writer writer = openExportWriter(filePath, gzip)) {
+      rows = streamQuery(sql, resultSet -> {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+        String[] keys = new String[columns + 1];
+        for (int i = 1; i <= columns; i++) {
+          keys[i] = quoteJson(metaData.getColumnName(i)) + ":";
+        }
+        long count = 0;
+        while (resultSet.next()) {
+          writer.write('{');
+          for (int i = 1; i <= columns; i++) {
+            if (i > 1)
+              writer.write(',');
+            writer.write(keys[i]);
+            Object value = readColumnValue(resultSet, metaData, i);
+            if (value == null)
+              writer.write("null");
+            else if (value instanceof Number || value instanceof Boolean)
+              writer.write(value.toString());
+            else
+              writer.write(quoteJson(value.toString()));
+          }
+          writer.write("}\n");
+          count++;
+        }
+        return count;
+      });
+    } catch (SQLException e) {
+      Log.error("Error exporting the query: " + sql + "\n", e);
+    }
+    logExportThroughput(filePath, rows, start);
+    return rows;
+  }
+
+  /**
+   * This method executes an SQL query and streams the result to an XLSX file
+   * using a streaming workbook. Only a small window of rows is held in memory,
+   * older rows are flushed to compressed temporary files.
+   *
+   * @param sql
+   *            sql statement to query the DB
+   * @param filePath
+   *            XLSX file path
+   * @param sheetName
+   *            name of the sheet
+   * @return number of rows exported
+   * @throws IOException
+   *             if the file could not be written
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long exportToXlsx(String sql, String filePath, String sheetName) throws IOException {
+    long start = System.nanoTime();
+    long rows = 0;
+    SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+    workbook.setCompressTempFiles(true);
+    try {
+      Sheet sheet = workbook.createSheet(sheetName);
+      rows = streamQuery(sql, resultSet -> {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+        Row header = sheet.createRow(0);
+        for (int i = 1; i <= columns; i++) {
+          header.createCell(i - 1).setCellValue(metaData.getColumnName(i));
+        }
+        int count = 0;
+        while (resultSet.next()) {
+          Row row = sheet.createRow(++count);
+          for (int i = 1; i <= columns; i++) {
+            Object value = readColumnValue(resultSet, metaData, i);
+            Cell cell = row.createCell(i - 1);
+            if (value instanceof Number number)
+              cell.setCellValue(number.doubleValue());
+            else if (value instanceof Boolean bool)
+              cell.setCellValue(bool);
+            else
+              cell.setCellValue(value == null ? EMPTY_STRING : value.toString());
+          }
+        }
+        return count;
+      });
+      try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(filePath), EXPORT_BUFFER_SIZE)) {
+        workbook.write(outputStream);
+      }
+    } catch (SQLException e) {
+      Log.error("Error exporting the query: " + sql + "\n", e);
+    } finally {
+      workbook.dispose();
+      workbook.close();
+    }
+    logExportThroughput(filePath, rows, start);
+    return rows;
+  }
+
   /**
    * This method is a utility method to parse the resultSet to List of
    * LinkedHashMap format
@@ -182,19 +578,16 @@ public class DatabaseUtils {
   private List<LinkedHashMap<String, String>> readResultSetWithColumnNames(ResultSet resultSet) {
     List<LinkedHashMap<String, String>> result = new ArrayList<>();
     try {
-      resultSet.beforeFirst();
+      ResultSetMetaData metaData = resultSet.getMetaData();
+      int columns = metaData.getColumnCount();
+      String[] keys = new String[columns + 1];
+      for (int i = 1; i <= columns; i++) {
+        keys[i] = metaData.getColumnName(i);
+      }
       while (resultSet.next()) {
         LinkedHashMap<String, String> row = new LinkedHashMap<>();
-        int columns = resultSet.getMetaData().getColumnCount();
         for (int i = 1; i <= columns; i++) {
-          String key = resultSet.getMetaData().getColumnName(i);
-          String value;
-          if (resultSet.getMetaData().getColumnType(i) == Types.VARBINARY) {
-            value = String.valueOf(resultSet.getObject(i, UUID.class));
-          } else {
-            value = String.valueOf(resultSet.getObject(i));
-          }
-          row.put(key, value);
+          row.put(keys[i], String.valueOf(readColumnValue(resultSet, metaData, i)));
         }
         result.add(row);
       }
@@ -216,18 +609,12 @@ public class DatabaseUtils {
   private List<List<String>> readResultSet(ResultSet resultSet) {
     List<List<String>> result = new ArrayList<>();
     try {
-      resultSet.beforeFirst();
+      ResultSetMetaData metaData = resultSet.getMetaData();
+      int columns = metaData.getColumnCount();
       while (resultSet.next()) {
-        List<String> row = new ArrayList<>();
-        int columns = resultSet.getMetaData().getColumnCount();
+        List<String> row = new ArrayList<>(columns);
         for (int i = 1; i <= columns; i++) {
-          String value;
-          if (resultSet.getMetaData().getColumnType(i) == Types.VARBINARY) {
-            value = String.valueOf(resultSet.getObject(i, UUID.class));
-          } else {
-            value = String.valueOf(resultSet.getObject(i));
-          }
-          row.add(value);
+          row.add(String.valueOf(readColumnValue(resultSet, metaData, i)));
         }
         result.add(row);
       }
@@ -236,4 +623,419 @@ public class DatabaseUtils {
     }
     return result;
   }
+
+  /**
+   * This method reads the shards of a parallel table read concurrently
+   *
+   * @param dataSource
+   *            data source handing out connections for the shards
+   * @param table
+   *            table name
+   * @param splitColumn
+   *            numeric or date/time column to split the table on
+   * @param parallelism
+   *            number of key ranges read concurrently
+   * @param shardSinks
+   *            returns the row consumer of a shard, called on the calling thread
+   *            in key-range order with the NULL shard last
+   * @return number of rows read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private long readShards(DataSource dataSource, String table, String splitColumn, int parallelism,
+      IntFunction<Consumer<List<String>>> shardSinks) {
+    long start = System.nanoTime();
+    List<Object[]> ranges;
+    try {
+      ranges = computeShardRanges(table, splitColumn, Math.max(1, parallelism));
+    } catch (SQLException e) {
+      throw new IllegalStateException("Could not compute the split range of " + table + "." + splitColumn, e);
+    }
+    String rangeSql = "SELECT * FROM " + table + " WHERE " + splitColumn + " >= ? AND " + splitColumn + " < ?";
+    String lastRangeSql = "SELECT * FROM " + table + " WHERE " + splitColumn + " >= ? AND " + splitColumn + " <= ?";
+    String nullSql = "SELECT * FROM " + table + " WHERE " + splitColumn + " IS NULL";
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, ranges.size() + 1)));
+    try {
+      List<Future<Long>> shards = new ArrayList<>();
+      for (int i = 0; i < ranges.size(); i++) {
+        String shardSql = i == ranges.size() - 1 ? lastRangeSql : rangeSql;
+        Object[] range = ranges.get(i);
+        int shard = i;
+        Consumer<List<String>> sink = shardSinks.apply(shard);
+        shards.add(executor.submit(() -> readShard(dataSource, shard, shardSql, range, sink)));
+      }
+      Consumer<List<String>> nullSink = shardSinks.apply(ranges.size());
+      shards.add(executor.submit(() -> readShard(dataSource, ranges.size(), nullSql, new Object[0], nullSink)));
+
+      long rows = 0;
+      for (Future<Long> shard : shards) {
+        rows += shard.get();
+      }
+      Log.info(String.format("Read %d rows from %s in %d shards in %d ms", rows, table, shards.size(),
+          (System.nanoTime() - start) / 1_000_000));
+      return rows;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading table " + table + " in parallel", e);
+    } catch (ExecutionException e) {
+      Log.error("Error reading table " + table + " in parallel...", e);
+      throw new IllegalStateException("Parallel read of table " + table + " failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * This method splits the MIN/MAX range of a column into key ranges. Interior
+   * bounds are computed as BigDecimal for numeric columns and as millisecond
+   * Timestamp for date/time columns, while the outer bounds are the exact MIN
+   * and MAX values so that no row is lost to rounding.
+   *
+   * @param table
+   *            table name
+   * @param splitColumn
+   *            numeric or date/time column
+   * @param parallelism
+   *            number of key ranges
+   * @return list of [lower, upper] bounds, empty if the table has no non-NULL
+   *         split values
+   * @throws SQLException
+   *             if the range could not be queried
+   * @throws IllegalArgumentException
+   *             if the split column is neither numeric nor date/time
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private List<Object[]> computeShardRanges(String table, String splitColumn, int parallelism)
+      throws SQLException {
+    List<Object[]> ranges = new ArrayList<>();
+    String sql = "SELECT MIN(" + splitColumn + "), MAX(" + splitColumn + ") FROM " + table;
+    try (ResultSet resultSet = executeQuery(sql)) {
+      int columnType = resultSet.getMetaData().getColumnType(1);
+      boolean numeric = isNumericType(columnType);
+      if (!numeric && !isTemporalType(columnType))
+        throw new IllegalArgumentException("Split column " + table + "." + splitColumn + " of type "
+            + resultSet.getMetaData().getColumnTypeName(1) + " is not supported, use a numeric or date/time column");
+      if (!resultSet.next() || resultSet.getObject(1) == null)
+        return ranges;
+      Object min = resultSet.getObject(1);
+      Object max = resultSet.getObject(2);
+      List<Object> bounds = new ArrayList<>();
+      bounds.add(min);
+      if (numeric) {
+        BigDecimal low = new BigDecimal(min.toString());
+        BigDecimal high = new BigDecimal(max.toString());
+        BigDecimal step = high.subtract(low).divide(BigDecimal.valueOf(parallelism), 10, RoundingMode.CEILING);
+        for (int i = 1; i < parallelism && step.signum() > 0; i++) {
+          BigDecimal bound = low.add(step.multiply(BigDecimal.valueOf(i)));
+          if (bound.compareTo(high) >= 0)
+            break;
+          bounds.add(bound);
+        }
+      } else {
+        long low = resultSet.getTimestamp(1).getTime();
+        long high = resultSet.getTimestamp(2).getTime();
+        long step = Math.max(1, (high - low + parallelism - 1) / parallelism);
+        for (int i = 1; i < parallelism; i++) {
+          long bound = low + step * i;
+          if (bound >= high)
+            break;
+          bounds.add(new Timestamp(bound));
+        }
+      }
+      bounds.add(max);
+      for (int i = 0; i < bounds.size() - 1; i++) {
+        ranges.add(new Object[]{bounds.get(i), bounds.get(i + 1)});
+      }
+    }
+    return ranges;
+  }
+
+  /**
+   * This method tells whether a JDBC type can be split as a number
+   *
+   * @param columnType
+   *            type from {@link java.sql.Types}
+   * @return true for integer, decimal and floating point types
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static boolean isNumericType(int columnType) {
+    return switch (columnType) {
+      case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.DECIMAL, Types.NUMERIC, Types.REAL,
+          Types.FLOAT, Types.DOUBLE -> true;
+      default -> false;
+    };
+  }
+
+  /**
+   * This method tells whether a JDBC type can be split as a point in time
+   *
+   * @param columnType
+   *            type from {@link java.sql.Types}
+   * @return true for date and timestamp types
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static boolean isTemporalType(int columnType) {
+    return switch (columnType) {
+      case Types.DATE, Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> true;
+      default -> false;
+    };
+  }
+
+  /**
+   * This method reads one shard of a parallel table read on its own connection
+   * and hands its rows to a consumer
+   *
+   * @param dataSource
+   *            data source to borrow the connection from
+   * @param shard
+   *            shard number used for logging
+   * @param sql
+   *            shard query with placeholders for the range bounds
+   * @param bounds
+   *            values bound to the placeholders
+   * @param sink
+   *            receives the rows of the shard
+   * @return number of rows read
+   * @throws SQLException
+   *             if the shard could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private long readShard(DataSource dataSource, int shard, String sql, Object[] bounds,
+      Consumer<List<String>> sink) throws SQLException {
+    long start = System.nanoTime();
+    try (Connection shardConnection = dataSource.getConnection()) {
+      boolean restoreAutoCommit = beginCursorTransaction(shardConnection);
+      try (PreparedStatement shardStatement = ResourceTracker.track(
+          shardConnection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))) {
+        shardStatement.setFetchSize(streamingFetchSize(shardConnection));
+        for (int i = 0; i < bounds.length; i++) {
+          shardStatement.setObject(i + 1, bounds[i]);
+        }
+        long rows = 0;
+        try (ResultSet resultSet = ResourceTracker.track(shardStatement.executeQuery())) {
+          ResultSetMetaData metaData = resultSet.getMetaData();
+          int columns = metaData.getColumnCount();
+          while (resultSet.next()) {
+            List<String> row = new ArrayList<>(columns);
+            for (int i = 1; i <= columns; i++) {
+              row.add(String.valueOf(readColumnValue(resultSet, metaData, i)));
+            }
+            sink.accept(row);
+            rows++;
+          }
+        }
+        Log.info(String.format("Shard %d %s: %d rows in %d ms", shard,
+            bounds.length == 0 ? "[NULL]" : "[" + bounds[0] + ", " + bounds[1] + "]", rows,
+            (System.nanoTime() - start) / 1_000_000));
+        return rows;
+      } finally {
+        endCursorTransaction(shardConnection, restoreAutoCommit);
+      }
+    }
+  }
+
+  /**
+   * This method runs a query through a streaming cursor and hands the open
+   * result-set to a handler. Drivers differ in what they need to stream rows
+   * instead of buffering the whole result:
+   * <ul>
+   * <li>PostgreSQL only honours the fetch size inside a transaction, so
+   * auto-commit is switched off for the duration of the query and restored
+   * afterwards.</li>
+   * <li>MySQL Connector/J streams row by row only with a fetch size of
+   * {@link Integer#MIN_VALUE} (or with {@code useCursorFetch=true} in the URL).
+   * While such a result is open, the connection cannot run other
+   * statements.</li>
+   * <li>Other drivers (Oracle, SQL Server, H2, MariaDB, ...) honour the fetch
+   * size as is.</li>
+   * </ul>
+   *
+   * @param sql
+   *            sql statement to query the DB
+   * @param handler
+   *            reads the result-set
+   * @return value returned by the handler
+   * @throws SQLException
+   *             if the query fails
+   * @throws IOException
+   *             if the handler fails writing
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private long streamQuery(String sql, CursorHandler handler) throws SQLException, IOException {
+    assert connection != null;
+    boolean restoreAutoCommit = beginCursorTransaction(connection);
+    try (Statement cursor = ResourceTracker.track(
+        connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))) {
+      cursor.setFetchSize(streamingFetchSize(connection));
+      try (ResultSet resultSet = ResourceTracker.track(cursor.executeQuery(sql))) {
+        return handler.handle(resultSet);
+      }
+    } finally {
+      endCursorTransaction(connection, restoreAutoCommit);
+    }
+  }
+
+  /**
+   * Reads an open streaming result-set
+   */
+  @FunctionalInterface
+  private interface CursorHandler {
+    long handle(ResultSet resultSet) throws SQLException, IOException;
+  }
+
+  /**
+   * This method switches auto-commit off on drivers which only stream inside a
+   * transaction
+   *
+   * @param cursorConnection
+   *            connection the cursor is opened on
+   * @return true if auto-commit was switched off and has to be restored
+   * @throws SQLException
+   *             if the connection cannot be inspected
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static boolean beginCursorTransaction(Connection cursorConnection) throws SQLException {
+    if (cursorConnection.getAutoCommit() && isDatabase(cursorConnection, "PostgreSQL")) {
+      cursorConnection.setAutoCommit(false);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * This method ends the transaction started by
+   * {@link #beginCursorTransaction(Connection)} and restores auto-commit
+   *
+   * @param cursorConnection
+   *            connection the cursor was opened on
+   * @param restoreAutoCommit
+   *            value returned by beginCursorTransaction
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static void endCursorTransaction(Connection cursorConnection, boolean restoreAutoCommit) {
+    if (!restoreAutoCommit)
+      return;
+    try {
+      cursorConnection.commit();
+      cursorConnection.setAutoCommit(true);
+    } catch (SQLException e) {
+      Log.error("Error restoring auto-commit after streaming query...", e);
+    }
+  }
+
+  /**
+   * This method returns the fetch size which makes the driver stream rows
+   *
+   * @param cursorConnection
+   *            connection the cursor is opened on
+   * @return fetch size hint
+   * @throws SQLException
+   *             if the connection cannot be inspected
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static int streamingFetchSize(Connection cursorConnection) throws SQLException {
+    return isDatabase(cursorConnection, "MySQL") ? Integer.MIN_VALUE : EXPORT_FETCH_SIZE;
+  }
+
+  /**
+   * This method checks the product name reported by the driver
+   *
+   * @param cursorConnection
+   *            connection to inspect
+   * @param productName
+   *            expected product name, e.g. PostgreSQL
+   * @return true if the connection belongs to the given database
+   * @throws SQLException
+   *             if the connection cannot be inspected
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static boolean isDatabase(Connection cursorConnection, String productName) throws SQLException {
+    return productName.equalsIgnoreCase(cursorConnection.getMetaData().getDatabaseProductName());
+  }
+
+  /**
+   * This method reads the value of a column from the current row of the
+   * resultSet, converting binary UUID columns to UUID
+   *
+   * @param resultSet
+   *            ResultSet object positioned on a row
+   * @param metaData
+   *            ResultSetMetaData of the resultSet
+   * @param column
+   *            column index starting at 1
+   * @return column value, null for SQL NULL
+   * @throws SQLException
+   *             if the value could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private Object readColumnValue(ResultSet resultSet, ResultSetMetaData metaData, int column) throws SQLException {
+    if (metaData.getColumnType(column) == Types.VARBINARY)
+      return resultSet.getObject(column, UUID.class);
+    return resultSet.getObject(column);
+  }
+
+  /**
+   * This method opens a buffered UTF-8 writer for an export file
+   *
+   * @param filePath
+   *            export file path
+   * @param gzip
+   *            true if the output is to be gzip compressed
+   * @return Writer object
+   * @throws IOException
+   *             if the file could not be opened
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private Writer openExportWriter(String filePath, boolean gzip) throws IOException {
+    OutputStream outputStream = new FileOutputStream(filePath);
+    if (gzip)
+      outputStream = new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE);
+    return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+  }
+
+  /**
+   * This method logs the number of rows exported and the throughput achieved
+   *
+   * @param filePath
+   *            export file path
+   * @param rows
+   *            number of rows exported
+   * @param startNanos
+   *            export start time from System.nanoTime()
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private void logExportThroughput(String filePath, long rows, long startNanos) {
+    long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+    Log.info(String.format("Exported %d rows to %s in %d ms (%.1f rows/sec)", rows, filePath, elapsedMillis,
+        rows * 1000.0 / elapsedMillis));
+  }
+
+  /**
+   * This method quotes and escapes a value as a JSON string literal
+   *
+   * @param value
+   *            String value
+   * @return JSON string literal
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static String quoteJson(String value) {
+    StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> builder.append("\\\"");
+        case '\\' -> builder.append("\\\\");
+        case '\n' -> builder.append("\\n");
+        case '\r' -> builder.append("\\r");
+        case '\t' -> builder.append("\\t");
+        default -> {
+          if (c < 0x20)
+            builder.append(String.format("\\u%04x", (int) c));
+          else
+            builder.append(c);
+        }
+      }
+    }
+    return builder.append('"').toString();
+  }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package io.github.the_sdet.db;
+
+import io.github.the_sdet.logger.Log;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Debug helper which records where JDBC statements and result-sets were created
+ * so that the ones never closed can be reported with their allocation stack
+ * trace. Tracking is a no-op unless enabled.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+final class ResourceTracker {
+  private static final int PRUNE_THRESHOLD = 256;
+  private static final Map<AutoCloseable, Exception> openResources = new IdentityHashMap<>();
+  private static volatile boolean enabled = Boolean.getBoolean("db.leak.detection");
+
+  private ResourceTracker() {
+  }
+
+  /**
+   * Enables or disables tracking of newly created resources
+   *
+   * @param enabled
+   *            true to enable tracking
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  static void setEnabled(boolean enabled) {
+    ResourceTracker.enabled = enabled;
+    if (!enabled) {
+      synchronized (openResources) {
+        openResources.clear();
+      }
+    }
+  }
+
+  /**
+   * Records the allocation stack trace of a resource if tracking is enabled
+   *
+   * @param resource
+   *            Statement or ResultSet
+   * @param <T>
+   *            type of resource
+   * @return the same resource
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  static <T extends AutoCloseable> T track(T resource) {
+    if (enabled && resource != null) {
+      synchronized (openResources) {
+        if (openResources.size() >= PRUNE_THRESHOLD)
+          openResources.keySet().removeIf(ResourceTracker::isClosed);
+        openResources.put(resource,
+            new Exception(resource.getClass().getSimpleName() + " allocated on " + Thread.currentThread().getName()));
+      }
+    }
+    return resource;
+  }
+
+  /**
+   * Logs every tracked resource which is still open with its allocation stack
+   * trace
+   *
+   * @return number of unclosed resources
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  static int report() {
+    List<Exception> leaks = new ArrayList<>();
+    synchronized (openResources) {
+      openResources.keySet().removeIf(ResourceTracker::isClosed);
+      leaks.addAll(openResources.values());
+    }
+    for (Exception allocation : leaks) {
+      Log.error("Unclosed JDBC resource: " + allocation.getMessage(), allocation);
+    }
+    if (leaks.isEmpty())
+      Log.info("No unclosed JDBC resources found...");
+    return leaks.size();
+  }
+
+  /**
+   * Checks whether a tracked resource has been closed
+   *
+   * @param resource
+   *            Statement or ResultSet
+   * @return true if the resource is closed or its state cannot be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static boolean isClosed(AutoCloseable resource) {
+    try {
+      if (resource instanceof ResultSet resultSet)
+        return resultSet.isClosed();
+      if (resource instanceof Statement statement)
+        return statement.isClosed();
+    } catch (SQLException e) {
+      return true;
+    }
+    return false;
+  }
+}
@@ -1,10 +1,14 @@
 package io.github.the_sdet.excel;
 
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -244,6 +248,48 @@ public class ExcelUtils {
     return dataSet;
   }
 
+  /**
+   * Writes a header row and data rows to a new Excel file. Rows are streamed to
+   * disk through a small in-memory window, so large tables can be written
+   * without holding the whole workbook in memory.
+   *
+   * @param filepath
+   *            filename with path
+   * @param sheetName
+   *            name of the sheet
+   * @param headers
+   *            header values of the first row
+   * @param rows
+   *            data rows, a null value leaves the cell empty
+   * @throws IOException
+   *             if an I/O error occurs
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void writeExcelSheet(String filepath, String sheetName, List<String> headers,
+      Iterable<? extends List<String>> rows) throws IOException {
+    SXSSFWorkbook wb = new SXSSFWorkbook(500);
+    wb.setCompressTempFiles(true);
+    try (FileOutputStream fos = new FileOutputStream(filepath)) {
+      Sheet sheet = wb.createSheet(sheetName);
+      Row header = sheet.createRow(0);
+      for (int i = 0; i < headers.size(); i++) {
+        header.createCell(i).setCellValue(headers.get(i));
+      }
+      int rowIndex = 1;
+      for (List<String> values : rows) {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.size(); i++) {
+          if (values.get(i) != null)
+            row.createCell(i).setCellValue(values.get(i));
+        }
+      }
+      wb.write(fos);
+    } finally {
+      wb.dispose();
+      wb.close();
+    }
+  }
+
   /**
    * Retrieve the string value from a given cell in the Excel sheet.
    *
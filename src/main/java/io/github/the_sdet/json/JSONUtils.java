@@ -1,13 +1,22 @@
 package io.github.the_sdet.json;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.jayway.jsonpath.JsonPath;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static io.github.the_sdet.json.JacksonSupport.MAPPER;
 
 /**
  * This class handles all JSON related Utilities and Helper methods
@@ -29,14 +38,37 @@ public class JSONUtils {
   public static String readJsonFromFile(String filePath) throws IOException {
     try {
       Path path = new File(filePath).toPath();
-      return new String(Files.readAllBytes(path));
+      return Files.readString(path, StandardCharsets.UTF_8);
     } catch (IOException e) {
       throw new IOException("Unable to read JSON file: " + filePath, e);
     }
   }
 
   /**
-   * This method writes JSON String to a JSON file
+   * This method streams the values matching a JSON path from a JSON file without
+   * loading the file into memory. Only definite paths and wildcards are
+   * supported, see {@link JsonStreamReader}. The returned Stream must be closed.
+   *
+   * @param filePath
+   *            JSON file path
+   * @param elementPath
+   *            restricted JSON path, e.g. $.orders[*].id
+   * @return Stream of matching values
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Stream<JsonNode> streamJsonFromFile(String filePath, String elementPath) throws IOException {
+    try {
+      return JsonStreamReader.stream(new File(filePath).toPath(), elementPath);
+    } catch (IOException e) {
+      throw new IOException("Unable to read JSON file: " + filePath, e);
+    }
+  }
+
+  /**
+   * This method writes JSON String to a JSON file. The file is written as UTF-8
+   * to a temporary file first and then atomically moved into place.
    *
    * @param jsonString
    *            JSON String
@@ -47,13 +79,113 @@ public class JSONUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static void writeJsonToFile(String jsonString, String filePath) throws IOException {
-    try (FileWriter fileWriter = new FileWriter(filePath)) {
-      fileWriter.write(jsonString);
+    try {
+      JsonFileWriter.writeChars(Path.of(filePath), writer -> writer.write(jsonString), false);
     } catch (IOException e) {
       throw new IOException("Unable to write JSON string to file: " + filePath, e);
     }
   }
 
+  /**
+   * This method writes a parsed JSON document to a JSON file, optionally gzip
+   * compressed. The document is serialized straight to the file and the file is
+   * atomically moved into place once complete.
+   *
+   * @param document
+   *            parsed JSON document
+   * @param filePath
+   *            JSON file path
+   * @param gzip
+   *            true to gzip compress the file
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void writeJsonToFile(JsonDocument document, String filePath, boolean gzip) throws IOException {
+    try {
+      JsonFileWriter.write(Path.of(filePath), document, gzip);
+    } catch (IOException e) {
+      throw new IOException("Unable to write JSON document to file: " + filePath, e);
+    }
+  }
+
+  /**
+   * This method queues a JSON String to be written to a JSON file in the
+   * background, see {@link JsonFileWriter#writeAsync}
+   *
+   * @param jsonString
+   *            JSON String
+   * @param filePath
+   *            JSON file path
+   * @param gzip
+   *            true to gzip compress the file
+   * @return future completed with the file path once the file is written
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static CompletableFuture<Path> writeJsonToFileAsync(String jsonString, String filePath, boolean gzip) {
+    return JsonFileWriter.writeAsync(Path.of(filePath),
+        outputStream -> outputStream.write(jsonString.getBytes(StandardCharsets.UTF_8)), gzip);
+  }
+
+  /**
+   * This method parses a JSON String once into a document which can be queried
+   * with any number of JSON paths without parsing the JSON again
+   *
+   * @param jsonString
+   *            JSON String
+   * @return parsed JSON document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonDocument parse(String jsonString) {
+    return new JsonDocument(JsonPath.parse(jsonString));
+  }
+
+  /**
+   * This method parses JSON bytes once with Jackson into a document which can be
+   * queried with any number of JSON paths and validated against schemas without
+   * converting it again. The encoding (UTF-8, UTF-16 or UTF-32) is detected from
+   * the bytes.
+   *
+   * @param json
+   *            JSON bytes
+   * @return parsed JSON document
+   * @throws IllegalArgumentException
+   *             if the bytes are not valid JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonDocument parse(byte[] json) {
+    try {
+      return new JsonDocument(MAPPER.readTree(json));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to parse JSON", e);
+    }
+  }
+
+  /**
+   * This method parses JSON bytes in the given charset, e.g. the charset of a
+   * response Content-Type, into a document. UTF-8 bytes are parsed directly;
+   * other charsets are decoded while parsing, without an intermediate String.
+   *
+   * @param json
+   *            JSON bytes
+   * @param charset
+   *            charset of the bytes, or null to detect UTF-8, UTF-16 or UTF-32
+   *            from the bytes
+   * @return parsed JSON document
+   * @throws IllegalArgumentException
+   *             if the bytes are not valid JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonDocument parse(byte[] json, Charset charset) {
+    if (charset == null || charset.equals(StandardCharsets.UTF_8))
+      return parse(json);
+    try (Reader reader = new InputStreamReader(new ByteArrayInputStream(json), charset)) {
+      return new JsonDocument(MAPPER.readTree(reader));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to parse JSON", e);
+    }
+  }
+
   /**
    * This method reads the value of an element from JSON String using json path
    *
@@ -65,7 +197,104 @@ public class JSONUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static String getElementFromJsonString(String jsonString, String elementPath) {
-    return JsonPath.read(jsonString, elementPath).toString();
+    return JsonPathCache.compile(elementPath).read(jsonString).toString();
+  }
+
+  /**
+   * This method reads the value of an element from JSON String as an int without
+   * converting it to a String first
+   *
+   * @param jsonString
+   *            JSON String
+   * @param elementPath
+   *            element path to extract value
+   * @return int value of element from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static int getInt(String jsonString, String elementPath) {
+    return parse(jsonString).getInt(elementPath);
+  }
+
+  /**
+   * This method reads the value of an element from JSON String as a long without
+   * converting it to a String first
+   *
+   * @param jsonString
+   *            JSON String
+   * @param elementPath
+   *            element path to extract value
+   * @return long value of element from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static long getLong(String jsonString, String elementPath) {
+    return parse(jsonString).getLong(elementPath);
+  }
+
+  /**
+   * This method reads the value of an element from JSON String as a double without
+   * converting it to a String first
+   *
+   * @param jsonString
+   *            JSON String
+   * @param elementPath
+   *            element path to extract value
+   * @return double value of element from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static double getDouble(String jsonString, String elementPath) {
+    return parse(jsonString).getDouble(elementPath);
+  }
+
+  /**
+   * This method reads the value of an element from JSON String as a boolean without
+   * converting it to a String first
+   *
+   * @param jsonString
+   *            JSON String
+   * @param elementPath
+   *            element path to extract value
+   * @return boolean value of element from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static boolean getBoolean(String jsonString, String elementPath) {
+    return parse(jsonString).getBoolean(elementPath);
+  }
+
+  /**
+   * This method reads the values of an element from JSON String as a typed List
+   *
+   * @param jsonString
+   *            JSON String
+   * @param elementPath
+   *            element path to extract values
+   * @param type
+   *            type of the list elements, e.g. Integer.class or a POJO class
+   * @param <T>
+   *            type of the list elements
+   * @return List of values of elements from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static <T> List<T> getList(String jsonString, String elementPath, Class<T> type) {
+    return parse(jsonString).getList(elementPath, type);
+  }
+
+  /**
+   * This method reads the value of an element from JSON String and maps it to the
+   * given type, e.g. a POJO
+   *
+   * @param jsonString
+   *            JSON String
+   * @param elementPath
+   *            element path to extract value
+   * @param type
+   *            target type
+   * @param <T>
+   *            target type
+   * @return value of element from JSON mapped to the given type
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static <T> T getAs(String jsonString, String elementPath, Class<T> type) {
+    return parse(jsonString).getAs(elementPath, type);
   }
 
   /**
@@ -80,7 +309,7 @@ public class JSONUtils {
    */
   @SuppressWarnings("unchecked")
   public static List<String> getElementsFromJsonString(String jsonString, String elementPath) {
-    Object value = JsonPath.read(jsonString, elementPath);
+    Object value = JsonPathCache.compile(elementPath).read(jsonString);
     if (value instanceof List)
       return (List<String>) value;
     else
@@ -99,11 +328,7 @@ public class JSONUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static List<String> getElementsFromJsonString(String jsonString, String... elementPaths) {
-    List<String> values = new ArrayList<>();
-    for (String elementPath : elementPaths) {
-      values.add(getElementFromJsonString(jsonString, elementPath.trim()));
-    }
-    return values;
+    return parse(jsonString).getElements(elementPaths);
   }
 
   /**
@@ -118,10 +343,45 @@ public class JSONUtils {
    * @author Pabitra Swain (contact.the.sdet@gmail.com)
    */
   public static Map<String, String> getElementsFromJsonString(String jsonString, Map<String, String> elementPaths) {
-    Map<String, String> values = new HashMap<>();
-    for (Map.Entry<String, String> element : elementPaths.entrySet()) {
-      values.put(element.getKey(), getElementFromJsonString(jsonString, element.getValue().trim()));
-    }
-    return values;
+    return parse(jsonString).getElements(elementPaths);
+  }
+
+  /**
+   * This method reads the values of multiple elements from every JSON file under
+   * a directory matching a glob, reading and parsing the files in parallel. See
+   * {@link JsonBulkExtractor}.
+   *
+   * @param directory
+   *            directory to search, recursively
+   * @param glob
+   *            glob relative to the directory, e.g. "**&#47;*.json"
+   * @param elementPaths
+   *            map of column names and element paths
+   * @return table with one row per file which can be exported to CSV or Excel
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonResultTable getElementsFromJsonFiles(String directory, String glob,
+      Map<String, String> elementPaths) throws IOException {
+    return JsonBulkExtractor.extract(directory, glob, elementPaths);
+  }
+
+  /**
+   * This method validates a JSON String against a JSON schema file and reports
+   * every violation. The schema is compiled once and cached.
+   *
+   * @param jsonString
+   *            JSON String
+   * @param schemaFilePath
+   *            JSON schema file path
+   * @return list of violation messages, empty if the JSON is valid
+   * @throws IOException
+   *             throws IOException
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<String> validateJsonSchema(String jsonString, String schemaFilePath) throws IOException {
+    return JsonSchemaValidator.validate(new JsonDocument(MAPPER.readTree(jsonString)), schemaFilePath,
+        JsonSchemaValidator.Mode.COLLECT_ALL);
   }
 }
@@ -0,0 +1,16 @@
+package io.github.the_sdet.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Holder of the shared, thread-safe Jackson ObjectMapper used by the JSON
+ * utilities
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+final class JacksonSupport {
+  static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private JacksonSupport() {
+  }
+}
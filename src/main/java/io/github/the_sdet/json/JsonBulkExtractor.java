@@ -0,0 +1,180 @@
+package io.github.the_sdet.json;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import io.github.the_sdet.logger.Log;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Extracts the same set of JSON paths from every JSON file in a directory. Files
+ * are read with NIO and parsed and evaluated in parallel, with the number of
+ * files in flight bounded so memory use depends on the parallelism, not on the
+ * number of files. The result is a {@link JsonResultTable} which can be written
+ * straight to CSV or Excel.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonBulkExtractor {
+  private JsonBulkExtractor() {
+  }
+
+  /**
+   * This method extracts values from every file under a directory matching a
+   * glob, using one thread per available processor
+   *
+   * @param directory
+   *            directory to search, recursively
+   * @param glob
+   *            glob relative to the directory, e.g. "*.json" for the top level
+   *            only or "{,**&#47;}order-*.json" for any depth ("**&#47;" needs at
+   *            least one directory)
+   * @param elementPaths
+   *            map of column names and element paths, iterated in its own order
+   * @return table with one row per file, sorted by file path; files which could
+   *         not be read or evaluated are listed by
+   *         {@link JsonResultTable#getFailures()}
+   * @throws IOException
+   *             if the directory could not be listed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonResultTable extract(String directory, String glob, Map<String, String> elementPaths)
+      throws IOException {
+    return extract(directory, glob, elementPaths, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * This method extracts values from every file under a directory matching a
+   * glob
+   *
+   * @param directory
+   *            directory to search, recursively
+   * @param glob
+   *            glob relative to the directory, e.g. "*.json" for the top level
+   *            only or "{,**&#47;}order-*.json" for any depth ("**&#47;" needs at
+   *            least one directory)
+   * @param elementPaths
+   *            map of column names and element paths, iterated in its own order
+   * @param parallelism
+   *            number of files read and parsed at the same time
+   * @return table with one row per file, sorted by file path; files which could
+   *         not be read or evaluated are listed by
+   *         {@link JsonResultTable#getFailures()}
+   * @throws IOException
+   *             if the directory could not be listed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonResultTable extract(String directory, String glob, Map<String, String> elementPaths,
+      int parallelism) throws IOException {
+    long start = System.nanoTime();
+    Path root = Path.of(directory);
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(root)) {
+      files = paths.filter(Files::isRegularFile).filter(path -> matcher.matches(root.relativize(path))).sorted()
+          .toList();
+    }
+
+    List<String> columnNames = new ArrayList<>();
+    columnNames.add(JsonResultTable.FILE_COLUMN);
+    List<JsonPath> paths = new ArrayList<>();
+    for (Map.Entry<String, String> element : elementPaths.entrySet()) {
+      columnNames.add(element.getKey());
+      paths.add(JsonPathCache.compile(element.getValue()));
+    }
+    String[][] columns = new String[columnNames.size()][files.size()];
+    String[] errors = new String[files.size()];
+
+    int threads = Math.max(1, parallelism);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    Semaphore inFlight = new Semaphore(threads * 2);
+    try {
+      List<Future<?>> tasks = new ArrayList<>(files.size());
+      for (int row = 0; row < files.size(); row++) {
+        inFlight.acquire();
+        int index = row;
+        tasks.add(executor.submit(() -> {
+          try {
+            extractRow(files.get(index), paths, columns, errors, index);
+          } finally {
+            inFlight.release();
+          }
+        }));
+      }
+      for (Future<?> task : tasks) {
+        task.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while extracting from " + directory, e);
+    } catch (ExecutionException e) {
+      throw new IOException("Unable to extract from " + directory, e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    Map<String, String> failures = new LinkedHashMap<>();
+    for (int row = 0; row < errors.length; row++) {
+      if (errors[row] != null)
+        failures.put(columns[0][row], errors[row]);
+    }
+    Log.info(String.format("Extracted %d paths from %d files under %s in %d ms, %d failed", paths.size(),
+        files.size(), directory, (System.nanoTime() - start) / 1_000_000, failures.size()));
+    return new JsonResultTable(columnNames, columns, failures);
+  }
+
+  /**
+   * This method reads one file and fills its row of the table
+   *
+   * @param file
+   *            JSON file
+   * @param paths
+   *            compiled element paths
+   * @param columns
+   *            table columns to fill
+   * @param errors
+   *            per row error messages to fill
+   * @param row
+   *            row index of the file
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static void extractRow(Path file, List<JsonPath> paths, String[][] columns, String[] errors, int row) {
+    columns[0][row] = file.toString();
+    JsonDocument document;
+    try {
+      document = new JsonDocument(JsonPath.parse(Files.readString(file, StandardCharsets.UTF_8)));
+    } catch (IOException | RuntimeException e) {
+      Log.error("Unable to read JSON file: " + file, e);
+      errors[row] = "Unable to read: " + e;
+      return;
+    }
+    StringJoiner pathErrors = new StringJoiner("; ");
+    for (int i = 0; i < paths.size(); i++) {
+      try {
+        Object value = document.read(paths.get(i));
+        columns[i + 1][row] = value == null ? null : value.toString();
+      } catch (PathNotFoundException e) {
+        columns[i + 1][row] = null;
+      } catch (RuntimeException e) {
+        columns[i + 1][row] = null;
+        pathErrors.add(paths.get(i).getPath() + ": " + e);
+      }
+    }
+    if (pathErrors.length() > 0) {
+      Log.warn("Unable to evaluate paths on JSON file " + file + ": " + pathErrors);
+      errors[row] = pathErrors.toString();
+    }
+  }
+}
@@ -0,0 +1,604 @@
+package io.github.the_sdet.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static io.github.the_sdet.json.JacksonSupport.MAPPER;
+
+/**
+ * Structural comparison of two JSON documents. A fingerprint of every subtree,
+ * made of a 64-bit hash, a 64-bit hash of its structure and its node count, is
+ * computed once, so identical branches are skipped in constant time and only
+ * differing branches are descended into. Objects are compared without regard to
+ * key order. Optionally, arrays can be compared as multisets, numbers
+ * within a tolerance, and paths can be ignored.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * List&lt;JsonDiff.Difference&gt; differences = new JsonDiff().ignorePath("$.meta.timestamp")
+ *     .ignoreArrayOrder(true).numericTolerance(0.001).compare(expectedJson, actualJson);
+ * </pre>
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonDiff {
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private static final int[] NONE = new int[0];
+  private static final long NUMBER_SHAPE = mix(0x4e);
+
+  private final List<List<JsonStreamReader.Segment>> ignoredPaths = new ArrayList<>();
+  private boolean ignoreArrayOrder;
+  private double numericTolerance;
+
+  /**
+   * Kind of difference found between expected and actual JSON
+   */
+  public enum Type {
+    /** Values of the same type differ */
+    VALUE_MISMATCH,
+    /** Values are of different JSON types */
+    TYPE_MISMATCH,
+    /** Value is present in expected but not in actual */
+    MISSING,
+    /** Value is present in actual but not in expected */
+    UNEXPECTED
+  }
+
+  /**
+   * A single difference between expected and actual JSON
+   *
+   * @param type
+   *            kind of difference
+   * @param path
+   *            JSON path of the differing value
+   * @param expected
+   *            expected value as JSON, null if missing
+   * @param actual
+   *            actual value as JSON, null if missing
+   */
+  public record Difference(Type type, String path, String expected, String actual) {
+    @Override
+    public String toString() {
+      return switch (type) {
+        case MISSING -> "MISSING at " + path + ": expected " + expected;
+        case UNEXPECTED -> "UNEXPECTED at " + path + ": " + actual;
+        default -> type + " at " + path + ": expected " + expected + " but was " + actual;
+      };
+    }
+  }
+
+  /**
+   * Fingerprint of a subtree. The shape hash is computed like the hash but
+   * ignores the values of numbers, so subtrees which can only differ within the
+   * numeric tolerance share a shape.
+   *
+   * @param hash
+   *            hash of the subtree
+   * @param shape
+   *            hash of the subtree with all numbers alike
+   * @param size
+   *            number of nodes of the subtree, ignored paths excluded
+   */
+  private record Fingerprint(long hash, long shape, int size) {
+  }
+
+  /**
+   * This method excludes a path from the comparison. {@code [*]} matches any
+   * array index and {@code .*} any property, e.g. {@code $.items[*].updatedAt}.
+   *
+   * @param elementPath
+   *            path to ignore, including everything below it
+   * @return this JsonDiff
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public JsonDiff ignorePath(String elementPath) {
+    ignoredPaths.add(JsonStreamReader.compile(elementPath));
+    return this;
+  }
+
+  /**
+   * This method makes arrays compare as multisets, i.e. the same elements in any
+   * order are equal
+   *
+   * @param ignoreArrayOrder
+   *            true to ignore the order of array elements
+   * @return this JsonDiff
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public JsonDiff ignoreArrayOrder(boolean ignoreArrayOrder) {
+    this.ignoreArrayOrder = ignoreArrayOrder;
+    return this;
+  }
+
+  /**
+   * This method sets the maximum absolute difference for numbers to still be
+   * considered equal
+   *
+   * @param tolerance
+   *            absolute numeric tolerance, 0 for exact comparison
+   * @return this JsonDiff
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public JsonDiff numericTolerance(double tolerance) {
+    this.numericTolerance = Math.abs(tolerance);
+    return this;
+  }
+
+  /**
+   * This method compares two JSON Strings
+   *
+   * @param expectedJson
+   *            expected JSON String
+   * @param actualJson
+   *            actual JSON String
+   * @return list of differences, empty if the documents are equal
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<Difference> compare(String expectedJson, String actualJson) {
+    try {
+      return compare(MAPPER.readTree(expectedJson), MAPPER.readTree(actualJson));
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Unable to parse JSON for comparison", e);
+    }
+  }
+
+  /**
+   * This method compares two parsed JSON trees
+   *
+   * @param expected
+   *            expected JSON tree
+   * @param actual
+   *            actual JSON tree
+   * @return list of differences, empty if the documents are equal
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<Difference> compare(JsonNode expected, JsonNode actual) {
+    int[] root = new int[ignoredPaths.size()];
+    for (int i = 0; i < root.length; i++) {
+      root[i] = i;
+    }
+    List<Difference> differences = new ArrayList<>();
+    if (isIgnored(root, 0))
+      return differences;
+    Map<JsonNode, Fingerprint> fingerprints = new IdentityHashMap<>();
+    fingerprint(expected, root, 0, fingerprints);
+    fingerprint(actual, root, 0, fingerprints);
+    compare("$", expected, actual, root, 0, fingerprints, differences);
+    return differences;
+  }
+
+  private void compare(String path, JsonNode expected, JsonNode actual, int[] active, int depth,
+      Map<JsonNode, Fingerprint> fingerprints, List<Difference> differences) {
+    // two 64-bit hashes and the node count are trusted for subtrees, scalars are
+    // cheap enough to compare directly
+    if (expected.isContainerNode() && actual.isContainerNode()) {
+      if (fingerprints.get(expected).equals(fingerprints.get(actual)))
+        return;
+    } else if (expected.equals(actual)) {
+      return;
+    }
+    if (expected.isNumber() && actual.isNumber()) {
+      if (!numbersEqual(expected, actual))
+        differences.add(new Difference(Type.VALUE_MISMATCH, path, expected.toString(), actual.toString()));
+    } else if (expected.getNodeType() != actual.getNodeType()) {
+      differences.add(new Difference(Type.TYPE_MISMATCH, path, expected.toString(), actual.toString()));
+    } else if (expected.isObject()) {
+      compareObjects(path, expected, actual, active, depth, fingerprints, differences);
+    } else if (expected.isArray()) {
+      if (ignoreArrayOrder)
+        compareArraysUnordered(path, expected, actual, active, depth, fingerprints, differences);
+      else
+        compareArraysOrdered(path, expected, actual, active, depth, fingerprints, differences);
+    } else {
+      differences.add(new Difference(Type.VALUE_MISMATCH, path, expected.toString(), actual.toString()));
+    }
+  }
+
+  private void compareObjects(String path, JsonNode expected, JsonNode actual, int[] active, int depth,
+      Map<JsonNode, Fingerprint> fingerprints, List<Difference> differences) {
+    Iterator<Map.Entry<String, JsonNode>> fields = expected.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      int[] fieldActive = advance(active, depth, field.getKey(), -1);
+      if (isIgnored(fieldActive, depth + 1))
+        continue;
+      JsonNode actualValue = actual.get(field.getKey());
+      if (actualValue == null)
+        differences.add(
+            new Difference(Type.MISSING, childPath(path, field.getKey()), field.getValue().toString(), null));
+      else
+        compare(childPath(path, field.getKey()), field.getValue(), actualValue, fieldActive, depth + 1, fingerprints,
+            differences);
+    }
+    Iterator<Map.Entry<String, JsonNode>> actualFields = actual.fields();
+    while (actualFields.hasNext()) {
+      Map.Entry<String, JsonNode> field = actualFields.next();
+      if (!expected.has(field.getKey()) && !isIgnored(advance(active, depth, field.getKey(), -1), depth + 1))
+        differences.add(
+            new Difference(Type.UNEXPECTED, childPath(path, field.getKey()), null, field.getValue().toString()));
+    }
+  }
+
+  private void compareArraysOrdered(String path, JsonNode expected, JsonNode actual, int[] active, int depth,
+      Map<JsonNode, Fingerprint> fingerprints, List<Difference> differences) {
+    int common = Math.min(expected.size(), actual.size());
+    for (int i = 0; i < common; i++) {
+      int[] elementActive = advance(active, depth, null, i);
+      if (!isIgnored(elementActive, depth + 1))
+        compare(path + "[" + i + "]", expected.get(i), actual.get(i), elementActive, depth + 1, fingerprints,
+            differences);
+    }
+    for (int i = common; i < expected.size(); i++) {
+      if (!isIgnored(advance(active, depth, null, i), depth + 1))
+        differences.add(new Difference(Type.MISSING, path + "[" + i + "]", expected.get(i).toString(), null));
+    }
+    for (int i = common; i < actual.size(); i++) {
+      if (!isIgnored(advance(active, depth, null, i), depth + 1))
+        differences.add(new Difference(Type.UNEXPECTED, path + "[" + i + "]", null, actual.get(i).toString()));
+    }
+  }
+
+  private void compareArraysUnordered(String path, JsonNode expected, JsonNode actual, int[] active, int depth,
+      Map<JsonNode, Fingerprint> fingerprints, List<Difference> differences) {
+    // remove every actual element with an expected element of the same
+    // fingerprint, then, as numbers within the tolerance fingerprint
+    // differently, match the leftovers of the same shape, and finally pair up
+    // whatever is still left in order
+    Map<Fingerprint, Deque<Integer>> expectedByFingerprint = new HashMap<>();
+    for (int i = 0; i < expected.size(); i++) {
+      if (!isIgnored(advance(active, depth, null, i), depth + 1))
+        expectedByFingerprint.computeIfAbsent(fingerprintOf(expected.get(i), fingerprints), key -> new ArrayDeque<>())
+            .add(i);
+    }
+    List<Integer> unmatchedActual = new ArrayList<>();
+    for (int i = 0; i < actual.size(); i++) {
+      if (isIgnored(advance(active, depth, null, i), depth + 1))
+        continue;
+      Deque<Integer> candidates = expectedByFingerprint.get(fingerprintOf(actual.get(i), fingerprints));
+      if (candidates != null && !candidates.isEmpty()
+          && matches(expected, candidates.peek(), actual.get(i), active, depth, fingerprints))
+        candidates.poll();
+      else
+        unmatchedActual.add(i);
+    }
+    List<Integer> unmatchedExpected = new ArrayList<>();
+    for (Deque<Integer> indexes : expectedByFingerprint.values()) {
+      unmatchedExpected.addAll(indexes);
+    }
+    if (numericTolerance > 0 && !unmatchedExpected.isEmpty() && !unmatchedActual.isEmpty())
+      matchWithinTolerance(expected, unmatchedExpected, actual, unmatchedActual, active, depth, fingerprints);
+    Collections.sort(unmatchedExpected);
+    Collections.sort(unmatchedActual);
+
+    int common = Math.min(unmatchedExpected.size(), unmatchedActual.size());
+    for (int i = 0; i < common; i++) {
+      int index = unmatchedExpected.get(i);
+      compare(path + "[" + index + "]", expected.get(index), actual.get(unmatchedActual.get(i)),
+          advance(active, depth, null, index), depth + 1, fingerprints, differences);
+    }
+    for (int i = common; i < unmatchedExpected.size(); i++) {
+      int index = unmatchedExpected.get(i);
+      differences.add(new Difference(Type.MISSING, path + "[" + index + "]", expected.get(index).toString(), null));
+    }
+    for (int i = common; i < unmatchedActual.size(); i++) {
+      int index = unmatchedActual.get(i);
+      differences.add(new Difference(Type.UNEXPECTED, path + "[" + index + "]", null, actual.get(index).toString()));
+    }
+  }
+
+  /**
+   * This method matches the leftover elements of an unordered array which are
+   * equal within the numeric tolerance and removes them from the leftovers. Only
+   * elements of the same shape can match, so the leftovers are grouped by shape
+   * first. Numbers are matched by walking both sides in sorted order, other
+   * groups are matched pairwise.
+   *
+   * @param expected
+   *            expected array
+   * @param unmatchedExpected
+   *            indexes of the expected elements still unmatched
+   * @param actual
+   *            actual array
+   * @param unmatchedActual
+   *            indexes of the actual elements still unmatched
+   * @param active
+   *            indexes of the ignored paths matching the array
+   * @param depth
+   *            depth of the array
+   * @param fingerprints
+   *            fingerprints of the container nodes
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private void matchWithinTolerance(JsonNode expected, List<Integer> unmatchedExpected, JsonNode actual,
+      List<Integer> unmatchedActual, int[] active, int depth, Map<JsonNode, Fingerprint> fingerprints) {
+    Map<Long, List<Integer>> expectedByShape = groupByShape(expected, unmatchedExpected, fingerprints);
+    Map<Long, List<Integer>> actualByShape = groupByShape(actual, unmatchedActual, fingerprints);
+    unmatchedExpected.clear();
+    unmatchedActual.clear();
+    for (Map.Entry<Long, List<Integer>> group : actualByShape.entrySet()) {
+      List<Integer> candidates = expectedByShape.remove(group.getKey());
+      if (candidates == null) {
+        unmatchedActual.addAll(group.getValue());
+      } else if (group.getKey() == NUMBER_SHAPE) {
+        matchNumbers(expected, candidates, actual, group.getValue(), unmatchedExpected, unmatchedActual);
+      } else {
+        for (int index : group.getValue()) {
+          if (!removeMatch(candidates, expected, actual.get(index), active, depth, fingerprints))
+            unmatchedActual.add(index);
+        }
+        unmatchedExpected.addAll(candidates);
+      }
+    }
+    expectedByShape.values().forEach(unmatchedExpected::addAll);
+  }
+
+  private Map<Long, List<Integer>> groupByShape(JsonNode array, List<Integer> indexes,
+      Map<JsonNode, Fingerprint> fingerprints) {
+    Map<Long, List<Integer>> groups = new HashMap<>();
+    for (int index : indexes) {
+      long shape = fingerprintOf(array.get(index), fingerprints).shape();
+      groups.computeIfAbsent(shape, key -> new ArrayList<>()).add(index);
+    }
+    return groups;
+  }
+
+  /**
+   * This method matches numbers within the tolerance. With both sides sorted,
+   * pairing the smallest numbers first matches as many as possible.
+   *
+   * @param expected
+   *            expected array
+   * @param expectedIndexes
+   *            indexes of the expected numbers
+   * @param actual
+   *            actual array
+   * @param actualIndexes
+   *            indexes of the actual numbers
+   * @param unmatchedExpected
+   *            receives the indexes of the expected numbers left unmatched
+   * @param unmatchedActual
+   *            receives the indexes of the actual numbers left unmatched
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private void matchNumbers(JsonNode expected, List<Integer> expectedIndexes, JsonNode actual,
+      List<Integer> actualIndexes, List<Integer> unmatchedExpected, List<Integer> unmatchedActual) {
+    expectedIndexes.sort(Comparator.comparingDouble(index -> expected.get(index).doubleValue()));
+    actualIndexes.sort(Comparator.comparingDouble(index -> actual.get(index).doubleValue()));
+    int e = 0;
+    int a = 0;
+    while (e < expectedIndexes.size() && a < actualIndexes.size()) {
+      double expectedValue = expected.get(expectedIndexes.get(e)).doubleValue();
+      double actualValue = actual.get(actualIndexes.get(a)).doubleValue();
+      if (Math.abs(expectedValue - actualValue) <= numericTolerance) {
+        e++;
+        a++;
+      } else if (expectedValue < actualValue) {
+        unmatchedExpected.add(expectedIndexes.get(e++));
+      } else {
+        unmatchedActual.add(actualIndexes.get(a++));
+      }
+    }
+    unmatchedExpected.addAll(expectedIndexes.subList(e, expectedIndexes.size()));
+    unmatchedActual.addAll(actualIndexes.subList(a, actualIndexes.size()));
+  }
+
+  /**
+   * This method finds an expected array element without differences to an
+   * actual element and removes it from the candidates. The last candidate takes
+   * the place of the removed one, as the order of the candidates does not
+   * matter.
+   *
+   * @param candidates
+   *            indexes of the expected elements still unmatched
+   * @param expected
+   *            expected array
+   * @param actualElement
+   *            actual element to match
+   * @param active
+   *            indexes of the ignored paths matching the array
+   * @param depth
+   *            depth of the array
+   * @param fingerprints
+   *            fingerprints of the container nodes
+   * @return true if a match was found and removed
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private boolean removeMatch(List<Integer> candidates, JsonNode expected, JsonNode actualElement, int[] active,
+      int depth, Map<JsonNode, Fingerprint> fingerprints) {
+    for (int i = 0; i < candidates.size(); i++) {
+      if (matches(expected, candidates.get(i), actualElement, active, depth, fingerprints)) {
+        int last = candidates.remove(candidates.size() - 1);
+        if (i < candidates.size())
+          candidates.set(i, last);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean matches(JsonNode expected, int index, JsonNode actualElement, int[] active, int depth,
+      Map<JsonNode, Fingerprint> fingerprints) {
+    List<Difference> scratch = new ArrayList<>();
+    compare("$", expected.get(index), actualElement, advance(active, depth, null, index), depth + 1, fingerprints,
+        scratch);
+    return scratch.isEmpty();
+  }
+
+  private boolean numbersEqual(JsonNode expected, JsonNode actual) {
+    if (numericTolerance > 0)
+      return Math.abs(expected.doubleValue() - actual.doubleValue()) <= numericTolerance;
+    return expected.decimalValue().compareTo(actual.decimalValue()) == 0;
+  }
+
+  /**
+   * This method narrows the ignored paths still matching a node down to those
+   * which also match its child
+   *
+   * @param active
+   *            indexes of the ignored paths matching the node
+   * @param depth
+   *            depth of the node, 0 for the root
+   * @param key
+   *            property name of the child, null for array elements
+   * @param index
+   *            array index of the child, ignored for properties
+   * @return indexes of the ignored paths matching the child
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private int[] advance(int[] active, int depth, String key, int index) {
+    if (active.length == 0)
+      return NONE;
+    int[] next = new int[active.length];
+    int count = 0;
+    for (int pattern : active) {
+      List<JsonStreamReader.Segment> segments = ignoredPaths.get(pattern);
+      if (segments.size() > depth
+          && (key != null ? segments.get(depth).matchesField(key) : segments.get(depth).matchesIndex(index)))
+        next[count++] = pattern;
+    }
+    return count == 0 ? NONE : Arrays.copyOf(next, count);
+  }
+
+  private boolean isIgnored(int[] active, int depth) {
+    for (int pattern : active) {
+      if (ignoredPaths.get(pattern).size() == depth)
+        return true;
+    }
+    return false;
+  }
+
+  private static String childPath(String path, String key) {
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '$')
+        return path + "['" + key.replace("'", "\\'") + "']";
+    }
+    return key.isEmpty() ? path + "['']" : path + "." + key;
+  }
+
+  private static Fingerprint fingerprintOf(JsonNode node, Map<JsonNode, Fingerprint> fingerprints) {
+    return node.isContainerNode() ? fingerprints.get(node) : scalarFingerprint(node);
+  }
+
+  private static Fingerprint scalarFingerprint(JsonNode node) {
+    long hash = scalarHash(node);
+    return new Fingerprint(hash, node.isNumber() ? NUMBER_SHAPE : hash, 1);
+  }
+
+  /**
+   * This method computes the fingerprint of every container node of a tree
+   * bottom-up. Object hashes do not depend on key order, array hashes depend on
+   * element order unless array order is ignored. Ignored paths do not contribute
+   * to the fingerprint. Scalar fingerprints are cheap and recomputed on demand
+   * instead of stored.
+   *
+   * @param node
+   *            root of the tree
+   * @param active
+   *            indexes of the ignored paths matching the node
+   * @param depth
+   *            depth of the node, 0 for the root
+   * @param fingerprints
+   *            map receiving the fingerprint of every container node
+   * @return fingerprint of the node
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private Fingerprint fingerprint(JsonNode node, int[] active, int depth, Map<JsonNode, Fingerprint> fingerprints) {
+    long hash;
+    long shape;
+    int size = 1;
+    if (node.isObject()) {
+      hash = 1;
+      shape = 1;
+      Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        int[] fieldActive = advance(active, depth, field.getKey(), -1);
+        Fingerprint value = fingerprint(field.getValue(), fieldActive, depth + 1, fingerprints);
+        if (!isIgnored(fieldActive, depth + 1)) {
+          long keyHash = fnv(FNV_OFFSET, field.getKey()) * 31;
+          hash += mix(keyHash + value.hash());
+          shape += mix(keyHash + value.shape());
+          size += value.size();
+        }
+      }
+      hash = mix(hash ^ 0x4f);
+      shape = mix(shape ^ 0x4f);
+    } else if (node.isArray()) {
+      hash = 2;
+      shape = 2;
+      for (int i = 0; i < node.size(); i++) {
+        int[] elementActive = advance(active, depth, null, i);
+        Fingerprint element = fingerprint(node.get(i), elementActive, depth + 1, fingerprints);
+        if (!isIgnored(elementActive, depth + 1)) {
+          hash = ignoreArrayOrder ? hash + mix(element.hash()) : mix(hash * 31 + element.hash());
+          shape = ignoreArrayOrder ? shape + mix(element.shape()) : mix(shape * 31 + element.shape());
+          size += element.size();
+        }
+      }
+      hash = mix(hash ^ 0x41);
+      shape = mix(shape ^ 0x41);
+    } else {
+      return scalarFingerprint(node);
+    }
+    Fingerprint fingerprint = new Fingerprint(hash, shape, size);
+    fingerprints.put(node, fingerprint);
+    return fingerprint;
+  }
+
+  /**
+   * This method hashes a scalar node. Numbers hash by numeric value, so 1 and 1.0
+   * hash alike.
+   *
+   * @param node
+   *            scalar node
+   * @return hash of the node
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static long scalarHash(JsonNode node) {
+    switch (node.getNodeType()) {
+      case NUMBER -> {
+        if (node.isIntegralNumber() && node.canConvertToLong())
+          return mix(node.longValue() ^ 0x4e);
+        double value = node.doubleValue();
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+          return mix((long) value ^ 0x4e);
+        // a decimal equal to the double it converts to hashes like that double
+        if (Double.isFinite(value)
+            && (node.isDouble() || node.isFloat() || BigDecimal.valueOf(value).compareTo(node.decimalValue()) == 0))
+          return mix(Double.doubleToLongBits(value) ^ 0x4e);
+        BigDecimal decimal = node.decimalValue().stripTrailingZeros();
+        return mix(fnv(FNV_OFFSET, decimal.toPlainString()) ^ 0x4e);
+      }
+      case STRING -> {
+        return mix(fnv(FNV_OFFSET, node.textValue()) ^ 0x53);
+      }
+      case BOOLEAN -> {
+        return node.booleanValue() ? 0x5452L : 0x4641L;
+      }
+      default -> {
+        return mix(fnv(FNV_OFFSET, node.asText()) ^ node.getNodeType().ordinal());
+      }
+    }
+  }
+
+  private static long fnv(long hash, String text) {
+    for (int i = 0; i < text.length(); i++) {
+      hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+    }
+    return hash;
+  }
+
+  private static long mix(long hash) {
+    hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+    return hash ^ (hash >>> 31);
+  }
+}
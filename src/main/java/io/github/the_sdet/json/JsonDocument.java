@@ -0,0 +1,391 @@
+package io.github.the_sdet.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+import static io.github.the_sdet.json.JacksonSupport.MAPPER;
+
+/**
+ * A JSON document parsed once and queried many times. Use
+ * {@link JSONUtils#parse(String)} to create one when more than one value has to
+ * be extracted from the same JSON, as every JSONUtils method taking a JSON
+ * String parses it again.
+ * <p>
+ * A document parsed with Jackson, e.g. by {@link JSONUtils#parse(byte[])}, keeps
+ * the Jackson tree, so schema validation runs on it without any conversion, and
+ * values read from it are converted to the same plain Java types as for other
+ * documents.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonDocument {
+  private static final JacksonJsonNodeJsonProvider JACKSON_TREE_PROVIDER = new JacksonJsonNodeJsonProvider(MAPPER);
+  private static final JacksonMappingProvider JACKSON_MAPPING_PROVIDER = new JacksonMappingProvider(MAPPER);
+  private final DocumentContext context;
+  private final boolean jacksonTree;
+  private JsonNode tree;
+
+  /**
+   * Wraps a parsed document
+   *
+   * @param context
+   *            JsonPath document context
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  JsonDocument(DocumentContext context) {
+    this.context = context;
+    this.jacksonTree = false;
+  }
+
+  /**
+   * Wraps a Jackson tree, which JSON paths are evaluated on directly
+   *
+   * @param tree
+   *            Jackson tree of the document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  JsonDocument(JsonNode tree) {
+    this.context = JsonPath.using(Configuration.defaultConfiguration().jsonProvider(JACKSON_TREE_PROVIDER)
+        .mappingProvider(JACKSON_MAPPING_PROVIDER)).parse(tree);
+    this.jacksonTree = true;
+    this.tree = tree;
+  }
+
+  /**
+   * This method reads the raw value of an element using JSON path
+   *
+   * @param elementPath
+   *            element path to extract value, compiled paths are cached by
+   *            {@link JsonPathCache}
+   * @param <T>
+   *            expected type of the value
+   * @return value of the element as returned by JsonPath
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public <T> T read(String elementPath) {
+    return toModel(context.read(JsonPathCache.compile(elementPath)));
+  }
+
+  /**
+   * This method reads the raw value of an element using a compiled JSON path
+   *
+   * @param elementPath
+   *            compiled element path
+   * @param <T>
+   *            expected type of the value
+   * @return value of the element as returned by JsonPath
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public <T> T read(JsonPath elementPath) {
+    return toModel(context.read(elementPath));
+  }
+
+  /**
+   * This method reads the value of an element using JSON path
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @return String value of element from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String getElement(String elementPath) {
+    return read(elementPath).toString();
+  }
+
+  /**
+   * This method reads the values of an element using JSON path
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @return List of String values of elements from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @SuppressWarnings("unchecked")
+  public List<String> getElements(String elementPath) {
+    Object value = read(elementPath);
+    if (value instanceof List)
+      return (List<String>) value;
+    else
+      return Collections.singletonList(value.toString());
+  }
+
+  /**
+   * This method reads the values of multiple elements using JSON path
+   *
+   * @param elementPaths
+   *            element paths
+   * @return List of String values of elements from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getElements(String... elementPaths) {
+    List<String> values = new ArrayList<>(elementPaths.length);
+    for (String elementPath : elementPaths) {
+      values.add(getElement(elementPath));
+    }
+    return values;
+  }
+
+  /**
+   * This method reads the values of multiple elements using JSON path
+   *
+   * @param elementPaths
+   *            map of keys and element paths
+   * @return Map of keys and values from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Map<String, String> getElements(Map<String, String> elementPaths) {
+    Map<String, String> values = new HashMap<>();
+    for (Map.Entry<String, String> element : elementPaths.entrySet()) {
+      values.put(element.getKey(), getElement(element.getValue()));
+    }
+    return values;
+  }
+
+  /**
+   * This method reads the value of an element as an int. Numeric values are
+   * read directly, numeric Strings are parsed.
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @return int value of element from JSON
+   * @throws IllegalArgumentException
+   *             if the value is not a number, has a fractional part or does not
+   *             fit into an int
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getInt(String elementPath) {
+    Object value = read(elementPath);
+    try {
+      return toBigDecimal(value, elementPath).intValueExact();
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Value at " + elementPath + " is not an int: " + value, e);
+    }
+  }
+
+  /**
+   * This method reads the value of an element as a long. Numeric values are read
+   * directly, numeric Strings are parsed.
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @return long value of element from JSON
+   * @throws IllegalArgumentException
+   *             if the value is not a number, has a fractional part or does not
+   *             fit into a long
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public long getLong(String elementPath) {
+    Object value = read(elementPath);
+    try {
+      return toBigDecimal(value, elementPath).longValueExact();
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Value at " + elementPath + " is not a long: " + value, e);
+    }
+  }
+
+  /**
+   * This method reads the value of an element as a double. Numeric values are
+   * read directly, numeric Strings are parsed.
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @return double value of element from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public double getDouble(String elementPath) {
+    return toNumber(read(elementPath), elementPath).doubleValue();
+  }
+
+  /**
+   * This method reads the value of an element as a boolean. Boolean values are
+   * read directly, the Strings "true" and "false" are parsed.
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @return boolean value of element from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public boolean getBoolean(String elementPath) {
+    Object value = read(elementPath);
+    if (value instanceof Boolean bool)
+      return bool;
+    if (value instanceof String text && (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")))
+      return Boolean.parseBoolean(text);
+    throw new IllegalArgumentException("Value at " + elementPath + " is not a boolean: " + value);
+  }
+
+  /**
+   * This method reads the values of an element as a typed List. Elements which
+   * are already of the requested type are returned as they are, others such as
+   * JSON objects are mapped to it.
+   *
+   * @param elementPath
+   *            element path to extract values
+   * @param type
+   *            type of the list elements, e.g. Integer.class or a POJO class
+   * @param <T>
+   *            type of the list elements
+   * @return List of values of elements from JSON
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public <T> List<T> getList(String elementPath, Class<T> type) {
+    Object value = read(elementPath);
+    if (!(value instanceof List<?> elements))
+      return Collections.singletonList(convert(value, type));
+    List<T> values = new ArrayList<>(elements.size());
+    for (Object element : elements) {
+      values.add(convert(element, type));
+    }
+    return values;
+  }
+
+  /**
+   * This method reads the value of an element and maps it to the given type. JSON
+   * objects are mapped to POJOs with Jackson directly from the parsed nodes.
+   *
+   * @param elementPath
+   *            element path to extract value
+   * @param type
+   *            target type, e.g. a POJO class
+   * @param <T>
+   *            target type
+   * @return value of element from JSON mapped to the given type
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public <T> T getAs(String elementPath, Class<T> type) {
+    return convert(read(elementPath), type);
+  }
+
+  /**
+   * This method returns the parsed JSON model, i.e. Maps, Lists and primitive
+   * wrappers. A document parsed with Jackson converts its whole tree on every
+   * call.
+   *
+   * @return root object of the document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Object json() {
+    return toModel(context.json());
+  }
+
+  /**
+   * This method returns the root of the document as parsed, a Jackson tree or
+   * the JsonPath model, both of which Jackson serializes without conversion
+   *
+   * @return root object of the document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  Object root() {
+    return context.json();
+  }
+
+  /**
+   * This method returns the document as a Jackson tree. A document parsed with
+   * Jackson returns its tree as it is. Any other document copies its whole model
+   * into a new tree on first use, which costs as much as parsing it again; parse
+   * with {@link JSONUtils#parse(byte[])} when the tree is needed, e.g. for
+   * schema validation.
+   *
+   * @return Jackson tree of the document
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  JsonNode toJsonNode() {
+    if (tree == null)
+      tree = MAPPER.valueToTree(context.json());
+    return tree;
+  }
+
+  /**
+   * This method serializes the document back to a JSON String
+   *
+   * @return JSON String
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String jsonString() {
+    return context.jsonString();
+  }
+
+  /**
+   * This method converts a value read from a Jackson tree to the model of the
+   * default JsonPath provider, so values have the same types whichever parser
+   * built the document
+   *
+   * @param value
+   *            value as read by JsonPath
+   * @param <T>
+   *            expected type of the value
+   * @return value with Jackson nodes converted to Maps, Lists and primitive
+   *         wrappers
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T toModel(Object value) {
+    if (!jacksonTree || !(value instanceof JsonNode node))
+      return (T) value;
+    return (T) toModel(node, Configuration.defaultConfiguration().jsonProvider());
+  }
+
+  private static Object toModel(JsonNode node, JsonProvider provider) {
+    if (node.isObject()) {
+      Object map = provider.createMap();
+      node.fields().forEachRemaining(field -> provider.setProperty(map, field.getKey(),
+          toModel(field.getValue(), provider)));
+      return map;
+    }
+    if (node.isArray()) {
+      Object array = provider.createArray();
+      for (int i = 0; i < node.size(); i++) {
+        provider.setArrayIndex(array, i, toModel(node.get(i), provider));
+      }
+      return array;
+    }
+    if (node.isNumber())
+      return node.numberValue();
+    if (node.isBoolean())
+      return node.booleanValue();
+    return node.isNull() || node.isMissingNode() ? null : node.asText();
+  }
+
+  private static Number toNumber(Object value, String elementPath) {
+    if (value instanceof Number number)
+      return number;
+    if (value instanceof String text) {
+      try {
+        return new BigDecimal(text.trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Value at " + elementPath + " is not a number: " + text, e);
+      }
+    }
+    throw new IllegalArgumentException("Value at " + elementPath + " is not a number: " + value);
+  }
+
+  private static BigDecimal toBigDecimal(Object value, String elementPath) {
+    Number number = toNumber(value, elementPath);
+    if (number instanceof BigDecimal decimal)
+      return decimal;
+    if (number instanceof BigInteger integer)
+      return new BigDecimal(integer);
+    if (number instanceof Double || number instanceof Float) {
+      if (!Double.isFinite(number.doubleValue()))
+        throw new IllegalArgumentException("Value at " + elementPath + " is not a finite number: " + value);
+      return new BigDecimal(number.toString());
+    }
+    return BigDecimal.valueOf(number.longValue());
+  }
+
+  private static <T> T convert(Object value, Class<T> type) {
+    if (value == null || type.isInstance(value))
+      return type.cast(value);
+    return MAPPER.convertValue(value, type);
+  }
+}
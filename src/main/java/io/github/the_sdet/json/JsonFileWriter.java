@@ -0,0 +1,269 @@
+package io.github.the_sdet.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.github.the_sdet.logger.Log;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+import static io.github.the_sdet.json.JacksonSupport.MAPPER;
+
+/**
+ * Writes JSON files safely and efficiently. Content is streamed as UTF-8
+ * through a large buffer into a temporary file next to the target, flushed to
+ * disk and then atomically moved over the target, so readers never see a
+ * truncated file even if the process dies mid-write. Output can optionally be
+ * gzip compressed, and writes can be queued to a background write-behind thread
+ * so evidence capture does not slow the test down. Writes still queued when the
+ * JVM exits are drained by a shutdown hook.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonFileWriter {
+  private static final int BUFFER_SIZE = 256 * 1024;
+  private static final ExecutorService writeBehind = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "json-write-behind");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private static final long SHUTDOWN_DRAIN_SECONDS = 30;
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(JsonFileWriter::drainOnShutdown, "json-write-behind-drain"));
+  }
+
+  /**
+   * Source of JSON content written as bytes
+   */
+  @FunctionalInterface
+  public interface OutputStreamSource {
+    /**
+     * Writes the content to the stream
+     *
+     * @param outputStream
+     *            stream to write UTF-8 JSON to, must not be closed
+     * @throws IOException
+     *             if writing fails
+     */
+    void writeTo(OutputStream outputStream) throws IOException;
+  }
+
+  /**
+   * Source of JSON content written as characters
+   */
+  @FunctionalInterface
+  public interface WriterSource {
+    /**
+     * Writes the content to the writer
+     *
+     * @param writer
+     *            UTF-8 writer, must not be closed
+     * @throws IOException
+     *             if writing fails
+     */
+    void writeTo(Writer writer) throws IOException;
+  }
+
+  private JsonFileWriter() {
+  }
+
+  /**
+   * This method atomically writes the bytes produced by a source to a file
+   *
+   * @param filePath
+   *            target file path
+   * @param source
+   *            content source
+   * @param gzip
+   *            true to gzip compress the file
+   * @throws IOException
+   *             if the file could not be written, the target is left untouched
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void write(Path filePath, OutputStreamSource source, boolean gzip) throws IOException {
+    Path target = filePath.toAbsolutePath();
+    Path directory = target.getParent();
+    Files.createDirectories(directory);
+    Path temp = createTempFile(directory, "." + target.getFileName());
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        OutputStream channelStream = new FilterOutputStream(Channels.newOutputStream(channel)) {
+          @Override
+          public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+          }
+
+          @Override
+          public void close() throws IOException {
+            // keep the channel open so that it can be forced to disk
+            flush();
+          }
+        };
+        OutputStream outputStream = new BufferedOutputStream(
+            gzip ? new GZIPOutputStream(channelStream, BUFFER_SIZE) : channelStream, BUFFER_SIZE);
+        try (outputStream) {
+          source.writeTo(outputStream);
+        }
+        channel.force(false);
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+  }
+
+  /**
+   * This method atomically writes the characters produced by a source to a file
+   * as UTF-8
+   *
+   * @param filePath
+   *            target file path
+   * @param source
+   *            content source
+   * @param gzip
+   *            true to gzip compress the file
+   * @throws IOException
+   *             if the file could not be written, the target is left untouched
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void writeChars(Path filePath, WriterSource source, boolean gzip) throws IOException {
+    write(filePath, outputStream -> {
+      Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+      source.writeTo(writer);
+      writer.flush();
+    }, gzip);
+  }
+
+  /**
+   * This method atomically writes a parsed JSON document to a file, serializing
+   * it directly to the file without building a String first
+   *
+   * @param filePath
+   *            target file path
+   * @param document
+   *            parsed JSON document
+   * @param gzip
+   *            true to gzip compress the file
+   * @throws IOException
+   *             if the file could not be written, the target is left untouched
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void write(Path filePath, JsonDocument document, boolean gzip) throws IOException {
+    write(filePath, outputStream -> MAPPER.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .writeValue(outputStream, document.root()), gzip);
+  }
+
+  /**
+   * This method queues a write on the background write-behind thread. Writes are
+   * performed one after another in submission order.
+   *
+   * @param filePath
+   *            target file path
+   * @param source
+   *            content source, invoked on the write-behind thread
+   * @param gzip
+   *            true to gzip compress the file
+   * @return future completed with the target path once the file is in place
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static CompletableFuture<Path> writeAsync(Path filePath, OutputStreamSource source, boolean gzip) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        write(filePath, source, gzip);
+        return filePath;
+      } catch (IOException e) {
+        Log.error("Unable to write JSON file: " + filePath, e);
+        throw new CompletionException(e);
+      }
+    }, writeBehind);
+  }
+
+  /**
+   * This method waits until every write queued before this call is finished,
+   * e.g. at the end of a test run
+   *
+   * @param timeoutSeconds
+   *            maximum time to wait
+   * @return true if all queued writes finished in time
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static boolean awaitPendingWrites(long timeoutSeconds) {
+    try {
+      CompletableFuture.runAsync(() -> {
+      }, writeBehind).get(timeoutSeconds, TimeUnit.SECONDS);
+      return true;
+    } catch (TimeoutException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (Exception e) {
+      return true;
+    }
+  }
+
+  /**
+   * This method stops accepting writes and waits for the queued ones, so that
+   * evidence queued at the end of a run is not lost when the JVM exits
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static void drainOnShutdown() {
+    writeBehind.shutdown();
+    try {
+      if (!writeBehind.awaitTermination(SHUTDOWN_DRAIN_SECONDS, TimeUnit.SECONDS))
+        Log.warn("Queued JSON writes did not finish within " + SHUTDOWN_DRAIN_SECONDS + " seconds of shutdown");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * This method creates an empty temporary file. Unlike
+   * {@link Files#createTempFile(Path, String, String, java.nio.file.attribute.FileAttribute[])},
+   * which makes the file readable by its owner only, the file gets the default
+   * permissions of the process (umask), and keeps them when moved over the
+   * target.
+   *
+   * @param directory
+   *            directory to create the file in
+   * @param prefix
+   *            file name prefix
+   * @return path of the created file
+   * @throws IOException
+   *             if the file could not be created
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static Path createTempFile(Path directory, String prefix) throws IOException {
+    while (true) {
+      Path temp = directory.resolve(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+      try {
+        return Files.createFile(temp);
+      } catch (FileAlreadyExistsException e) {
+        // name taken, try another one
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package io.github.the_sdet.json;
+
+import com.jayway.jsonpath.JsonPath;
+import io.github.the_sdet.logger.Log;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of compiled JSON paths keyed by the path String as
+ * passed by the caller. Paths are trimmed before compiling, so " $.a " and
+ * "$.a" are both served without trimming again on every lookup. When the cache
+ * is full an arbitrary entry is evicted to make room.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonPathCache {
+  private static final ConcurrentMap<String, JsonPath> cache = new ConcurrentHashMap<>();
+  private static final LongAdder hits = new LongAdder();
+  private static final LongAdder misses = new LongAdder();
+  private static volatile int maxSize = Integer.getInteger("json.path.cache.size", 2048);
+
+  private JsonPathCache() {
+  }
+
+  /**
+   * This method returns the compiled form of a JSON path, compiling and caching
+   * it on first use
+   *
+   * @param elementPath
+   *            element path, surrounding whitespace is ignored
+   * @return compiled JsonPath
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonPath compile(String elementPath) {
+    JsonPath compiled = cache.get(elementPath);
+    if (compiled != null) {
+      hits.increment();
+      return compiled;
+    }
+    misses.increment();
+    compiled = JsonPath.compile(elementPath.trim());
+    if (cache.size() >= maxSize)
+      evictOne();
+    cache.put(elementPath, compiled);
+    return compiled;
+  }
+
+  /**
+   * This method sets the maximum number of cached paths
+   *
+   * @param size
+   *            maximum number of entries
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void setMaxSize(int size) {
+    maxSize = Math.max(1, size);
+    while (cache.size() > maxSize) {
+      evictOne();
+    }
+  }
+
+  /**
+   * This method returns the number of lookups served from the cache
+   *
+   * @return hit count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * This method returns the number of lookups which had to compile the path
+   *
+   * @return miss count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * This method returns the fraction of lookups served from the cache
+   *
+   * @return hit rate between 0 and 1
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static double getHitRate() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  /**
+   * This method returns the number of cached paths
+   *
+   * @return cache size
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static int size() {
+    return cache.size();
+  }
+
+  /**
+   * This method logs the cache size, hits, misses and hit rate
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void logStatistics() {
+    Log.info(String.format("JsonPath cache: size=%d, hits=%d, misses=%d, hit rate=%.2f%%", size(), getHitCount(),
+        getMissCount(), getHitRate() * 100));
+  }
+
+  /**
+   * This method removes all cached paths and resets the metrics
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void clear() {
+    cache.clear();
+    hits.reset();
+    misses.reset();
+  }
+
+  private static void evictOne() {
+    Iterator<String> keys = cache.keySet().iterator();
+    if (keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package io.github.the_sdet.json;
+
+import io.github.the_sdet.excel.ExcelUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.*;
+
+import static io.github.the_sdet.common.CommonUtils.escapeCsv;
+
+/**
+ * Columnar table of values extracted from many JSON documents, one row per
+ * document. The first column, {@code file}, holds the source of the row; the
+ * remaining columns are the extraction keys in the order they were given. A
+ * value is null if its path was not found or the document could not be read;
+ * read and evaluation errors are listed by {@link #getFailures()}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonResultTable {
+  /** Name of the column holding the source file of each row */
+  public static final String FILE_COLUMN = "file";
+
+  private final List<String> columnNames;
+  private final String[][] columns;
+  private final Map<String, String> failures;
+
+  /**
+   * Creates a table from column data
+   *
+   * @param columnNames
+   *            names of the columns
+   * @param columns
+   *            values per column, all of the same length
+   * @param failures
+   *            error messages keyed by the source of the failed row
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  JsonResultTable(List<String> columnNames, String[][] columns, Map<String, String> failures) {
+    this.columnNames = List.copyOf(columnNames);
+    this.columns = columns;
+    this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+  }
+
+  /**
+   * This method returns the column names
+   *
+   * @return column names, starting with {@value #FILE_COLUMN}
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  /**
+   * This method returns the rows which could not be read or evaluated
+   * completely. Values of the failed paths are null in the table.
+   *
+   * @return Map of row sources and error messages, empty if all rows succeeded
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Map<String, String> getFailures() {
+    return failures;
+  }
+
+  /**
+   * This method returns the number of rows
+   *
+   * @return row count
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public int getRowCount() {
+    return columns.length == 0 ? 0 : columns[0].length;
+  }
+
+  /**
+   * This method returns all values of a column
+   *
+   * @param columnName
+   *            column name
+   * @return values of the column in row order
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getColumn(String columnName) {
+    int index = columnNames.indexOf(columnName);
+    if (index < 0)
+      throw new IllegalArgumentException("No such column: " + columnName);
+    return Collections.unmodifiableList(Arrays.asList(columns[index]));
+  }
+
+  /**
+   * This method returns the values of a row
+   *
+   * @param row
+   *            row index
+   * @return values of the row in column order
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public List<String> getRow(int row) {
+    List<String> values = new ArrayList<>(columns.length);
+    for (String[] column : columns) {
+      values.add(column[row]);
+    }
+    return values;
+  }
+
+  /**
+   * This method returns the values of a row keyed by column name
+   *
+   * @param row
+   *            row index
+   * @return Map of column names and values
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Map<String, String> getRowAsMap(int row) {
+    Map<String, String> values = new LinkedHashMap<>();
+    for (int i = 0; i < columns.length; i++) {
+      values.put(columnNames.get(i), columns[i][row]);
+    }
+    return values;
+  }
+
+  /**
+   * This method writes the table to a CSV file with a header row
+   *
+   * @param filePath
+   *            CSV file path
+   * @throws IOException
+   *             if the file could not be written
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void toCsv(String filePath) throws IOException {
+    JsonFileWriter.writeChars(Path.of(filePath), writer -> {
+      writeCsvLine(writer, columnNames);
+      for (int row = 0; row < getRowCount(); row++) {
+        writeCsvLine(writer, getRow(row));
+      }
+    }, false);
+  }
+
+  /**
+   * This method writes the table to an Excel sheet with a header row
+   *
+   * @param filePath
+   *            Excel file path
+   * @param sheetName
+   *            name of the sheet
+   * @throws IOException
+   *             if the file could not be written
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void toExcel(String filePath, String sheetName) throws IOException {
+    ExcelUtils.writeExcelSheet(filePath, sheetName, columnNames, () -> new Iterator<>() {
+      private int row;
+
+      @Override
+      public boolean hasNext() {
+        return row < getRowCount();
+      }
+
+      @Override
+      public List<String> next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+        return getRow(row++);
+      }
+    });
+  }
+
+  private static void writeCsvLine(Writer writer, List<String> values) throws IOException {
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0)
+        writer.write(',');
+      if (values.get(i) != null)
+        writer.write(escapeCsv(values.get(i)));
+    }
+    writer.write('\n');
+  }
+}
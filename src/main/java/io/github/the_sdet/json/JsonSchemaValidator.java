@@ -0,0 +1,175 @@
+package io.github.the_sdet.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.*;
+import io.github.the_sdet.logger.Log;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static io.github.the_sdet.json.JacksonSupport.MAPPER;
+
+/**
+ * Validates JSON documents against JSON Schemas. Schemas are compiled once and
+ * cached by the SHA-256 hash of their content; schema files are additionally
+ * remembered by path, size and modification time so an unchanged file is not
+ * even read again. The draft is taken from the schema's {@code $schema} keyword
+ * and defaults to draft 7.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonSchemaValidator {
+  private static final ConcurrentMap<String, CompiledSchema> schemasByHash = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<Path, SchemaFile> schemaFiles = new ConcurrentHashMap<>();
+
+  /**
+   * Validation mode
+   */
+  public enum Mode {
+    /** Stop at the first violation */
+    FAIL_FAST,
+    /** Report every violation */
+    COLLECT_ALL
+  }
+
+  private JsonSchemaValidator() {
+  }
+
+  /**
+   * This method validates a parsed JSON document against a schema file
+   *
+   * @param document
+   *            parsed JSON document
+   * @param schemaFilePath
+   *            JSON schema file path
+   * @param mode
+   *            FAIL_FAST to stop at the first violation, COLLECT_ALL to report
+   *            all of them
+   * @return list of violation messages, empty if the document is valid
+   * @throws IOException
+   *             if the schema file could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<String> validate(JsonDocument document, String schemaFilePath, Mode mode) throws IOException {
+    return validate(document.toJsonNode(), loadSchemaFile(Path.of(schemaFilePath)), mode);
+  }
+
+  /**
+   * This method validates a parsed JSON document against a schema given as JSON
+   * String
+   *
+   * @param document
+   *            parsed JSON document
+   * @param schemaJson
+   *            JSON schema as String
+   * @param mode
+   *            FAIL_FAST to stop at the first violation, COLLECT_ALL to report
+   *            all of them
+   * @return list of violation messages, empty if the document is valid
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<String> validateAgainstSchemaString(JsonDocument document, String schemaJson, Mode mode) {
+    byte[] content = schemaJson.getBytes(StandardCharsets.UTF_8);
+    return validate(document.toJsonNode(), compile(sha256(content), content), mode);
+  }
+
+  /**
+   * This method removes all compiled schemas from the cache
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static void clearCache() {
+    schemaFiles.clear();
+    schemasByHash.clear();
+  }
+
+  private static List<String> validate(JsonNode json, CompiledSchema schema, Mode mode) {
+    Set<ValidationMessage> messages;
+    if (mode == Mode.FAIL_FAST) {
+      try {
+        messages = schema.failFast.validate(json);
+      } catch (JsonSchemaException e) {
+        messages = e.getValidationMessages();
+        if (messages == null || messages.isEmpty())
+          return List.of(e.getMessage());
+      }
+    } else {
+      messages = schema.collectAll.validate(json);
+    }
+    List<String> errors = new ArrayList<>(messages.size());
+    for (ValidationMessage message : messages) {
+      errors.add(message.getMessage());
+    }
+    return errors;
+  }
+
+  /**
+   * This method returns the compiled schema of a schema file, reading and
+   * hashing the file only if its size or modification time changed
+   *
+   * @param schemaFile
+   *            JSON schema file path
+   * @return compiled schema
+   * @throws IOException
+   *             if the schema file could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static CompiledSchema loadSchemaFile(Path schemaFile) throws IOException {
+    Path key = schemaFile.toAbsolutePath().normalize();
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(key, BasicFileAttributes.class);
+    } catch (IOException e) {
+      throw new IOException("Unable to read JSON schema file: " + schemaFile, e);
+    }
+    long modified = attributes.lastModifiedTime().toMillis();
+    SchemaFile cached = schemaFiles.get(key);
+    if (cached != null && cached.size == attributes.size() && cached.modified == modified)
+      return cached.schema;
+
+    byte[] content = Files.readAllBytes(key);
+    CompiledSchema schema = compile(sha256(content), content);
+    schemaFiles.put(key, new SchemaFile(attributes.size(), modified, schema));
+    return schema;
+  }
+
+  private static CompiledSchema compile(String hash, byte[] content) {
+    return schemasByHash.computeIfAbsent(hash, key -> {
+      try {
+        JsonNode schemaNode = MAPPER.readTree(content);
+        JsonSchemaFactory factory = JsonSchemaFactory
+            .getInstance(SpecVersionDetector.detectOptionalVersion(schemaNode).orElse(SpecVersion.VersionFlag.V7));
+        SchemaValidatorsConfig failFastConfig = new SchemaValidatorsConfig();
+        failFastConfig.setFailFast(true);
+        Log.debug("Compiled JSON schema " + hash);
+        return new CompiledSchema(factory.getSchema(schemaNode, failFastConfig),
+            factory.getSchema(schemaNode, new SchemaValidatorsConfig()));
+      } catch (IOException e) {
+        throw new IllegalArgumentException("Unable to parse JSON schema", e);
+      }
+    });
+  }
+
+  private static String sha256(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record CompiledSchema(JsonSchema failFast, JsonSchema collectAll) {
+  }
+
+  private record SchemaFile(long size, long modified, CompiledSchema schema) {
+  }
+}
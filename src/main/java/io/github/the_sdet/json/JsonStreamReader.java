@@ -0,0 +1,264 @@
+package io.github.the_sdet.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static io.github.the_sdet.json.JacksonSupport.MAPPER;
+
+/**
+ * Evaluates a JSON path while the JSON is being tokenized and emits the
+ * matching values as a lazy Stream, so only the matched values are ever held in
+ * memory. Only definite paths and wildcards are supported: {@code $},
+ * {@code .name}, {@code ['name']}, {@code [n]}, {@code [*]} and {@code .*}.
+ * Filters, deep scans, slices and unions need the whole document and are
+ * rejected.
+ * <p>
+ * The returned Stream holds the underlying input open and must be closed, e.g.
+ * with try-with-resources.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonStreamReader {
+  private JsonStreamReader() {
+  }
+
+  /**
+   * This method streams the values matching a JSON path from a JSON file
+   *
+   * @param filePath
+   *            JSON file path
+   * @param elementPath
+   *            restricted JSON path, e.g. $.orders[*].customer
+   * @return Stream of matching values
+   * @throws IOException
+   *             if the file could not be opened
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Stream<JsonNode> stream(Path filePath, String elementPath) throws IOException {
+    List<Segment> segments = compile(elementPath);
+    return stream(Files.newInputStream(filePath), segments);
+  }
+
+  /**
+   * This method streams the values matching a JSON path from an InputStream. The
+   * InputStream is closed when the Stream is closed, or right away if the
+   * Stream cannot be created.
+   *
+   * @param inputStream
+   *            UTF-8/16/32 encoded JSON
+   * @param elementPath
+   *            restricted JSON path, e.g. $.orders[*].customer
+   * @return Stream of matching values
+   * @throws IOException
+   *             if the parser could not be created
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static Stream<JsonNode> stream(InputStream inputStream, String elementPath) throws IOException {
+    List<Segment> segments;
+    try {
+      segments = compile(elementPath);
+    } catch (RuntimeException e) {
+      closeQuietly(inputStream, e);
+      throw e;
+    }
+    return stream(inputStream, segments);
+  }
+
+  private static Stream<JsonNode> stream(InputStream inputStream, List<Segment> segments) throws IOException {
+    JsonParser parser;
+    try {
+      parser = MAPPER.getFactory().createParser(inputStream);
+    } catch (IOException | RuntimeException e) {
+      closeQuietly(inputStream, e);
+      throw e;
+    }
+    return StreamSupport.stream(new MatchSpliterator(parser, segments), false).onClose(() -> {
+      try {
+        parser.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  private static void closeQuietly(InputStream inputStream, Exception failure) {
+    try {
+      inputStream.close();
+    } catch (IOException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  /**
+   * This method streams the values matching a JSON path from an InputStream and
+   * maps each of them to the given type
+   *
+   * @param inputStream
+   *            UTF-8/16/32 encoded JSON
+   * @param elementPath
+   *            restricted JSON path
+   * @param type
+   *            type to map every matching value to
+   * @param <T>
+   *            target type
+   * @return Stream of mapped values
+   * @throws IOException
+   *             if the parser could not be created
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static <T> Stream<T> stream(InputStream inputStream, String elementPath, Class<T> type)
+      throws IOException {
+    return stream(inputStream, elementPath).map(node -> MAPPER.convertValue(node, type));
+  }
+
+  /**
+   * This method parses a restricted JSON path into its segments
+   *
+   * @param elementPath
+   *            restricted JSON path
+   * @return list of segments after the root
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  static List<Segment> compile(String elementPath) {
+    String path = elementPath.trim();
+    if (!path.startsWith("$"))
+      throw new IllegalArgumentException("JSON path must start with '$': " + elementPath);
+    List<Segment> segments = new ArrayList<>();
+    int i = 1;
+    while (i < path.length()) {
+      char c = path.charAt(i);
+      if (c == '.') {
+        if (i + 1 < path.length() && path.charAt(i + 1) == '.')
+          throw new IllegalArgumentException("Deep scan is not supported in streaming mode: " + elementPath);
+        int end = i + 1;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[')
+          end++;
+        String name = path.substring(i + 1, end);
+        if (name.isEmpty())
+          throw new IllegalArgumentException("Empty property name in JSON path: " + elementPath);
+        segments.add(name.equals("*") ? Segment.WILDCARD : Segment.field(name));
+        i = end;
+      } else if (c == '[') {
+        int end = path.indexOf(']', i);
+        if (end < 0)
+          throw new IllegalArgumentException("Unclosed '[' in JSON path: " + elementPath);
+        String selector = path.substring(i + 1, end).trim();
+        if (selector.equals("*")) {
+          segments.add(Segment.WILDCARD);
+        } else if (selector.length() >= 2 && (selector.charAt(0) == '\'' || selector.charAt(0) == '"')
+            && selector.charAt(selector.length() - 1) == selector.charAt(0)) {
+          segments.add(Segment.field(selector.substring(1, selector.length() - 1)));
+        } else if (selector.matches("\\d+")) {
+          segments.add(Segment.index(Integer.parseInt(selector)));
+        } else {
+          throw new IllegalArgumentException(
+              "Only [n], [*] and ['name'] selectors are supported in streaming mode: " + elementPath);
+        }
+        i = end + 1;
+      } else {
+        throw new IllegalArgumentException("Unexpected character '" + c + "' in JSON path: " + elementPath);
+      }
+    }
+    return segments;
+  }
+
+  /**
+   * One step of a restricted JSON path
+   */
+  record Segment(String name, int index) {
+    static final Segment WILDCARD = new Segment(null, -1);
+
+    static Segment field(String name) {
+      return new Segment(name, -1);
+    }
+
+    static Segment index(int index) {
+      return new Segment(null, index);
+    }
+
+    boolean matchesField(String field) {
+      return this == WILDCARD || (name != null && name.equals(field));
+    }
+
+    boolean matchesIndex(int position) {
+      return this == WILDCARD || index == position;
+    }
+  }
+
+  /**
+   * Pulls tokens until the next value matching the path has been read
+   */
+  private static final class MatchSpliterator extends Spliterators.AbstractSpliterator<JsonNode> {
+    private final JsonParser parser;
+    private final List<Segment> segments;
+    // one entry per open container on the matched path, holding the next array
+    // index or -1 for objects
+    private final Deque<int[]> containers = new ArrayDeque<>();
+
+    MatchSpliterator(JsonParser parser, List<Segment> segments) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+      this.parser = parser;
+      this.segments = segments;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super JsonNode> action) {
+      try {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+          if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+            containers.pop();
+            continue;
+          }
+          if (token == JsonToken.FIELD_NAME)
+            continue;
+
+          int depth = containers.size();
+          boolean matched;
+          if (depth == 0) {
+            matched = true;
+          } else {
+            int[] container = containers.peek();
+            Segment segment = segments.get(depth - 1);
+            matched = container[0] < 0
+                ? segment.matchesField(parser.currentName())
+                : segment.matchesIndex(container[0]++);
+          }
+
+          if (matched && depth == segments.size()) {
+            JsonNode node = MAPPER.readTree(parser);
+            action.accept(node == null ? NullNode.getInstance() : node);
+            return true;
+          }
+          if (token.isStructStart()) {
+            if (matched)
+              containers.push(new int[]{token == JsonToken.START_ARRAY ? 0 : -1});
+            else
+              parser.skipChildren();
+          }
+        }
+        return false;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
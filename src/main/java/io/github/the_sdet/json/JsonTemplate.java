@@ -0,0 +1,279 @@
+package io.github.the_sdet.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.the_sdet.json.JacksonSupport.MAPPER;
+
+/**
+ * A JSON payload template with {@code ${name}} placeholders, compiled once into
+ * a list of pre-encoded UTF-8 literal segments and placeholder slots. Rendering
+ * copies the literal bytes and writes escaped values straight into a ByteBuffer
+ * or OutputStream, so generating a request body does not allocate intermediate
+ * Strings for the template text.
+ * <p>
+ * A placeholder standing alone, e.g. {@code "qty": ${qty}}, is replaced by a
+ * JSON value; a placeholder inside a string, e.g. {@code "ref": "ORD-${id}"},
+ * is replaced by escaped string content. A template instance is thread-safe.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class JsonTemplate {
+  private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+  private static final ThreadLocal<ByteBuffer> streamBuffers = ThreadLocal
+      .withInitial(() -> ByteBuffer.allocate(8 * 1024));
+
+  private final Object[] segments;
+  private final AtomicLong renders = new AtomicLong();
+
+  private JsonTemplate(Object[] segments) {
+    this.segments = segments;
+  }
+
+  /**
+   * This method compiles a JSON template
+   *
+   * @param template
+   *            JSON text with ${name} placeholders
+   * @return compiled template
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonTemplate compile(String template) {
+    List<Object> segments = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    boolean inString = false;
+    for (int i = 0; i < template.length(); i++) {
+      char c = template.charAt(i);
+      if (c == '$' && i + 1 < template.length() && template.charAt(i + 1) == '{') {
+        int end = template.indexOf('}', i + 2);
+        if (end < 0)
+          throw new IllegalArgumentException("Unclosed placeholder at index " + i + " of JSON template");
+        if (!literal.isEmpty())
+          segments.add(literal.toString().getBytes(StandardCharsets.UTF_8));
+        literal.setLength(0);
+        segments.add(new Placeholder(template.substring(i + 2, end).trim().intern(), inString));
+        i = end;
+        continue;
+      }
+      if (c == '\\' && inString && i + 1 < template.length()) {
+        literal.append(c).append(template.charAt(++i));
+        continue;
+      }
+      if (c == '"')
+        inString = !inString;
+      literal.append(c);
+    }
+    if (!literal.isEmpty())
+      segments.add(literal.toString().getBytes(StandardCharsets.UTF_8));
+    return new JsonTemplate(segments.toArray());
+  }
+
+  /**
+   * This method reads and compiles a JSON template file
+   *
+   * @param filePath
+   *            template file path
+   * @return compiled template
+   * @throws IOException
+   *             if the file could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static JsonTemplate compileFromFile(String filePath) throws IOException {
+    try {
+      return compile(Files.readString(Path.of(filePath), StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new IOException("Unable to read JSON template file: " + filePath, e);
+    }
+  }
+
+  /**
+   * This method renders the template into a ByteBuffer, starting at its current
+   * position
+   *
+   * @param generator
+   *            supplier of placeholder values
+   * @param buffer
+   *            buffer to write to, e.g. a reused direct buffer
+   * @return the same buffer, positioned after the rendered JSON
+   * @throws BufferOverflowException
+   *             if the buffer is too small
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public ByteBuffer render(JsonValueGenerator generator, ByteBuffer buffer) {
+    return render(generator, buffer, false);
+  }
+
+  /**
+   * This method renders the template to an OutputStream through a per-thread
+   * reusable buffer
+   *
+   * @param generator
+   *            supplier of placeholder values
+   * @param outputStream
+   *            stream to write to
+   * @throws IOException
+   *             if writing fails
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void render(JsonValueGenerator generator, OutputStream outputStream) throws IOException {
+    ByteBuffer buffer = render(generator, streamBuffers.get().clear(), true);
+    outputStream.write(buffer.array(), 0, buffer.position());
+  }
+
+  /**
+   * This method renders the template to a String
+   *
+   * @param generator
+   *            supplier of placeholder values
+   * @return rendered JSON String
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public String render(JsonValueGenerator generator) {
+    ByteBuffer buffer = render(generator, streamBuffers.get().clear(), true);
+    return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * This method renders the template into a buffer. If the per-thread buffer is
+   * too small, it is replaced by a larger one and only the segment which did not
+   * fit is written again, so the generator is called once per placeholder and
+   * the sequence number is taken once per render.
+   *
+   * @param generator
+   *            supplier of placeholder values
+   * @param buffer
+   *            buffer to write to
+   * @param growable
+   *            true if the buffer is the per-thread buffer and may be replaced
+   * @return the buffer holding the rendered JSON, positioned after it
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private ByteBuffer render(JsonValueGenerator generator, ByteBuffer buffer, boolean growable) {
+    long sequence = renders.getAndIncrement();
+    for (Object segment : segments) {
+      Placeholder placeholder = segment instanceof Placeholder slot ? slot : null;
+      Object value = placeholder == null ? null : generator.generate(placeholder.name, sequence);
+      while (true) {
+        int start = buffer.position();
+        try {
+          if (placeholder == null)
+            buffer.put((byte[]) segment);
+          else
+            writeValue(value, placeholder.inString, buffer);
+          break;
+        } catch (BufferOverflowException e) {
+          if (!growable)
+            throw e;
+          ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+          larger.put(buffer.array(), 0, start);
+          streamBuffers.set(larger);
+          buffer = larger;
+        }
+      }
+    }
+    return buffer;
+  }
+
+  private static void writeValue(Object value, boolean inString, ByteBuffer buffer) {
+    if (inString) {
+      if (value != null)
+        writeEscaped(value instanceof CharSequence text ? text : value.toString(), buffer);
+    } else if (value == null) {
+      buffer.put(NULL);
+    } else if (value instanceof CharSequence text) {
+      buffer.put((byte) '"');
+      writeEscaped(text, buffer);
+      buffer.put((byte) '"');
+    } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+        || value instanceof Byte) {
+      writeLong(((Number) value).longValue(), buffer);
+    } else if (value instanceof Number || value instanceof Boolean) {
+      writeAscii(value.toString(), buffer);
+    } else {
+      try {
+        buffer.put(MAPPER.writeValueAsBytes(value));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Unable to serialize template value: " + value, e);
+      }
+    }
+  }
+
+  private static void writeLong(long value, ByteBuffer buffer) {
+    if (value == Long.MIN_VALUE) {
+      writeAscii(Long.toString(value), buffer);
+      return;
+    }
+    if (value < 0) {
+      buffer.put((byte) '-');
+      value = -value;
+    }
+    int start = buffer.position();
+    do {
+      buffer.put((byte) ('0' + value % 10));
+      value /= 10;
+    } while (value > 0);
+    for (int left = start, right = buffer.position() - 1; left < right; left++, right--) {
+      byte swap = buffer.get(left);
+      buffer.put(left, buffer.get(right));
+      buffer.put(right, swap);
+    }
+  }
+
+  private static void writeAscii(String text, ByteBuffer buffer) {
+    for (int i = 0; i < text.length(); i++) {
+      buffer.put((byte) text.charAt(i));
+    }
+  }
+
+  /**
+   * This method writes text as escaped JSON string content in UTF-8
+   *
+   * @param text
+   *            text to write
+   * @param buffer
+   *            buffer to write to
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static void writeEscaped(CharSequence text, ByteBuffer buffer) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"' || c == '\\') {
+        buffer.put((byte) '\\').put((byte) c);
+      } else if (c < 0x20) {
+        switch (c) {
+          case '\n' -> buffer.put((byte) '\\').put((byte) 'n');
+          case '\r' -> buffer.put((byte) '\\').put((byte) 'r');
+          case '\t' -> buffer.put((byte) '\\').put((byte) 't');
+          default -> buffer.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0').put(HEX[c >> 4])
+              .put(HEX[c & 0xf]);
+        }
+      } else if (c < 0x80) {
+        buffer.put((byte) c);
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xc0 | (c >> 6))).put((byte) (0x80 | (c & 0x3f)));
+      } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+          && Character.isLowSurrogate(text.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, text.charAt(++i));
+        buffer.put((byte) (0xf0 | (codePoint >> 18))).put((byte) (0x80 | ((codePoint >> 12) & 0x3f)))
+            .put((byte) (0x80 | ((codePoint >> 6) & 0x3f))).put((byte) (0x80 | (codePoint & 0x3f)));
+      } else {
+        buffer.put((byte) (0xe0 | (c >> 12))).put((byte) (0x80 | ((c >> 6) & 0x3f)))
+            .put((byte) (0x80 | (c & 0x3f)));
+      }
+    }
+  }
+
+  private record Placeholder(String name, boolean inString) {
+  }
+}
@@ -0,0 +1,95 @@
+package io.github.the_sdet.json;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Supplies the values of {@link JsonTemplate} placeholders. A generator is
+ * called once per placeholder per render and may be called concurrently.
+ * <p>
+ * Strings are written as JSON strings, Numbers and Booleans as JSON literals,
+ * null as JSON null, and any other object is serialized with Jackson. Inside a
+ * quoted placeholder such as {@code "id-${n}"} every value is written as
+ * escaped string content.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@FunctionalInterface
+public interface JsonValueGenerator {
+  /**
+   * Returns the value of a placeholder
+   *
+   * @param placeholder
+   *            name of the placeholder, e.g. "orderId" for ${orderId}
+   * @param sequence
+   *            number of the render call on the template, starting at 0
+   * @return value to write
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  Object generate(String placeholder, long sequence);
+
+  /**
+   * Generator which returns fixed values by placeholder name, and null for
+   * unknown placeholders
+   *
+   * @param values
+   *            values by placeholder name
+   * @return JsonValueGenerator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  static JsonValueGenerator of(Map<String, ?> values) {
+    return (placeholder, sequence) -> values.get(placeholder);
+  }
+
+  /**
+   * Generator which delegates to one generator per placeholder name, and returns
+   * null for unknown placeholders
+   *
+   * @param generators
+   *            generators by placeholder name
+   * @return JsonValueGenerator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  static JsonValueGenerator byName(Map<String, JsonValueGenerator> generators) {
+    return (placeholder, sequence) -> {
+      JsonValueGenerator generator = generators.get(placeholder);
+      return generator == null ? null : generator.generate(placeholder, sequence);
+    };
+  }
+
+  /**
+   * Generator returning the render sequence number
+   *
+   * @return JsonValueGenerator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  static JsonValueGenerator sequence() {
+    return (placeholder, sequence) -> sequence;
+  }
+
+  /**
+   * Generator returning a random UUID String
+   *
+   * @return JsonValueGenerator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  static JsonValueGenerator uuid() {
+    return (placeholder, sequence) -> UUID.randomUUID().toString();
+  }
+
+  /**
+   * Generator returning a random long between min (inclusive) and max
+   * (exclusive)
+   *
+   * @param min
+   *            lower bound, inclusive
+   * @param max
+   *            upper bound, exclusive
+   * @return JsonValueGenerator
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  static JsonValueGenerator randomLong(long min, long max) {
+    return (placeholder, sequence) -> ThreadLocalRandom.current().nextLong(min, max);
+  }
+}
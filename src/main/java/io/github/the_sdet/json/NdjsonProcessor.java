@@ -0,0 +1,220 @@
+package io.github.the_sdet.json;
+
+import com.jayway.jsonpath.JsonPath;
+import io.github.the_sdet.logger.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Processes newline-delimited JSON (NDJSON) files of any size. The file is
+ * memory-mapped and split into chunks on line boundaries, and the chunks are
+ * parsed and evaluated in parallel on a fork-join pool, so neither the file nor
+ * its parsed records are ever held in memory as a whole.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@SuppressWarnings("unused")
+public class NdjsonProcessor {
+  private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+  private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+  private static final int LOOKAHEAD_SIZE = 64 * 1024;
+
+  private NdjsonProcessor() {
+  }
+
+  /**
+   * This method extracts the values of multiple JSON paths from every record of
+   * an NDJSON file
+   *
+   * @param filePath
+   *            NDJSON file path
+   * @param elementPaths
+   *            map of keys and element paths
+   * @param ordered
+   *            true to return the results in file order, false to return them
+   *            in the order the workers finish them, which saves buffering and
+   *            merging the results of every chunk
+   * @return Map of keys and values per record
+   * @throws IOException
+   *             if the file could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static List<Map<String, String>> extract(String filePath, Map<String, String> elementPaths,
+      boolean ordered) throws IOException {
+    return process(filePath, record -> true, record -> record.getElements(elementPaths), ordered,
+        ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /**
+   * This method applies a filter and a mapping function to every record of an
+   * NDJSON file. Filter and mapper are called concurrently and must be
+   * thread-safe.
+   *
+   * @param filePath
+   *            NDJSON file path
+   * @param filter
+   *            records for which the filter returns false are dropped
+   * @param mapper
+   *            function producing the result for a record, e.g.
+   *            {@code record -> record.getElement("$.id")}
+   * @param ordered
+   *            true to return the results in file order, false to return them
+   *            in the order the workers finish them, which saves buffering and
+   *            merging the results of every chunk
+   * @param parallelism
+   *            number of worker threads
+   * @param <T>
+   *            type of result
+   * @return results of the records that passed the filter
+   * @throws IOException
+   *             if the file could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static <T> List<T> process(String filePath, Predicate<JsonDocument> filter,
+      Function<JsonDocument, T> mapper, boolean ordered, int parallelism) throws IOException {
+    long start = System.nanoTime();
+    LongAdder records = new LongAdder();
+    try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+      List<long[]> chunks = splitIntoChunks(channel, Math.max(1, parallelism));
+      ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+      try {
+        List<T> results = pool.submit(() -> {
+          if (ordered) {
+            return chunks.parallelStream().flatMap(chunk -> {
+              List<T> chunkResults = new ArrayList<>();
+              processChunk(channel, chunk, filter, mapper, records, chunkResults::add);
+              return chunkResults.stream();
+            }).collect(Collectors.toList());
+          }
+          Queue<T> completed = new ConcurrentLinkedQueue<>();
+          chunks.parallelStream()
+              .forEach(chunk -> processChunk(channel, chunk, filter, mapper, records, completed::add));
+          return new ArrayList<>(completed);
+        }).get();
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        Log.info(String.format("Processed %d NDJSON records from %s in %d ms (%.1f records/sec), %d matched",
+            records.sum(), filePath, elapsedMillis, records.sum() * 1000.0 / elapsedMillis, results.size()));
+        return results;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while processing NDJSON file: " + filePath, e);
+      } catch (ExecutionException e) {
+        throw new IOException("Unable to process NDJSON file: " + filePath, e.getCause());
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * This method splits a file into chunks which start and end on line
+   * boundaries
+   *
+   * @param channel
+   *            file channel
+   * @param parallelism
+   *            number of worker threads, used to size the chunks
+   * @return list of [start, end) byte offsets
+   * @throws IOException
+   *             if the file could not be read
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static List<long[]> splitIntoChunks(FileChannel channel, int parallelism) throws IOException {
+    long size = channel.size();
+    long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size / (parallelism * 4L)));
+    List<long[]> chunks = new ArrayList<>();
+    ByteBuffer lookahead = ByteBuffer.allocate(LOOKAHEAD_SIZE);
+    long start = 0;
+    while (start < size) {
+      long end = Math.min(size, start + chunkSize);
+      while (end < size) {
+        lookahead.clear();
+        int read = channel.read(lookahead, end);
+        int newline = -1;
+        for (int i = 0; i < read && newline < 0; i++) {
+          if (lookahead.get(i) == '\n')
+            newline = i;
+        }
+        if (newline >= 0) {
+          end += newline + 1;
+          break;
+        }
+        end = Math.min(size, end + Math.max(read, 1));
+      }
+      chunks.add(new long[]{start, end});
+      start = end;
+    }
+    return chunks;
+  }
+
+  /**
+   * This method maps a chunk and evaluates every record in it
+   *
+   * @param channel
+   *            file channel
+   * @param chunk
+   *            [start, end) byte offsets of the chunk
+   * @param filter
+   *            record filter
+   * @param mapper
+   *            record mapper
+   * @param records
+   *            counter of records read
+   * @param sink
+   *            receives the results of the records that passed the filter
+   * @param <T>
+   *            type of result
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  private static <T> void processChunk(FileChannel channel, long[] chunk, Predicate<JsonDocument> filter,
+      Function<JsonDocument, T> mapper, LongAdder records, Consumer<T> sink) {
+    MappedByteBuffer buffer;
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to map NDJSON chunk at offset " + chunk[0], e);
+    }
+    byte[] line = new byte[1024];
+    int lineStart = 0;
+    int limit = buffer.limit();
+    for (int i = 0; i <= limit; i++) {
+      if (i < limit && buffer.get(i) != '\n')
+        continue;
+      int lineEnd = i;
+      if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r')
+        lineEnd--;
+      int length = lineEnd - lineStart;
+      if (length > 0) {
+        if (line.length < length)
+          line = new byte[Math.max(length, line.length * 2)];
+        buffer.get(lineStart, line, 0, length);
+        String text = new String(line, 0, length, StandardCharsets.UTF_8);
+        if (!text.isBlank()) {
+          records.increment();
+          JsonDocument record = new JsonDocument(JsonPath.parse(text));
+          if (filter.test(record))
+            sink.accept(mapper.apply(record));
+        }
+      }
+      lineStart = i + 1;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package io.github.the_sdet.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the retry policy and circuit breaker of {@link APIUtils} against a
+ * local HTTP server.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class APIUtilsTest {
+  private static final String HOST = "127.0.0.1";
+  private final List<String> received = new CopyOnWriteArrayList<>();
+  private final AtomicInteger calls = new AtomicInteger();
+  private final List<CircuitBreaker.State> statesDuringCall = new CopyOnWriteArrayList<>();
+  private HttpServer server;
+  private String baseUri;
+  private CircuitBreaker breaker;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/flaky", exchange -> {
+      received.add(describe(exchange));
+      respond(exchange, calls.incrementAndGet() <= 2 ? 503 : 200);
+    });
+    server.createContext("/down", exchange -> {
+      calls.incrementAndGet();
+      respond(exchange, 500);
+    });
+    server.createContext("/up", exchange -> {
+      calls.incrementAndGet();
+      if (breaker != null)
+        statesDuringCall.add(breaker.getState(HOST));
+      respond(exchange, 200);
+    });
+    server.start();
+    baseUri = "http://" + HOST + ":" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    APIUtils.setRetryPolicy(null);
+    APIUtils.setCircuitBreaker(null);
+    server.stop(0);
+  }
+
+  @Test
+  void retriedGetIsIdenticalToTheFirstAttempt() {
+    APIUtils.setRetryPolicy(new RetryPolicy().backoff(Duration.ofMillis(1), Duration.ofMillis(2)));
+
+    int status = APIUtils.get(baseUri, "/flaky/42?x=1&y=2", Map.of("X-Trace", "t-1")).getStatusCode();
+
+    assertEquals(200, status);
+    assertEquals(3, received.size());
+    assertEquals(List.of(received.get(0), received.get(0), received.get(0)), received);
+    assertTrue(received.get(0).startsWith("GET /flaky/42?x=1&y=2 "), received.get(0));
+  }
+
+  @Test
+  void retriedPutWithPathParameterIsIdenticalToTheFirstAttempt() {
+    APIUtils.setRetryPolicy(new RetryPolicy().backoff(Duration.ofMillis(1), Duration.ofMillis(2)));
+
+    int status = APIUtils.request(baseUri).header("X-Trace", "t-2").queryParam("v", "2").body("{\"a\": 1}")
+        .put("/flaky/{id}?x=1", 7).getStatusCode();
+
+    assertEquals(200, status);
+    assertEquals(3, received.size());
+    assertEquals(List.of(received.get(0), received.get(0), received.get(0)), received);
+    assertTrue(received.get(0).startsWith("PUT /flaky/7?"), received.get(0));
+  }
+
+  @Test
+  void circuitOpensFailsFastAndClosesAfterSuccessfulTrial() throws InterruptedException {
+    breaker = new CircuitBreaker(2, Duration.ofMillis(300));
+    APIUtils.setCircuitBreaker(breaker);
+
+    assertEquals(500, APIUtils.get(baseUri, "/down").getStatusCode());
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(HOST));
+    assertEquals(500, APIUtils.get(baseUri, "/down").getStatusCode());
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState(HOST));
+
+    assertThrows(IllegalStateException.class, () -> APIUtils.get(baseUri, "/up"));
+    assertEquals(2, calls.get(), "call went through an open circuit");
+
+    // the cool-down is a lower bound, so waiting longer always lets the trial through
+    Thread.sleep(400);
+    assertEquals(200, APIUtils.get(baseUri, "/up").getStatusCode());
+    assertEquals(List.of(CircuitBreaker.State.HALF_OPEN), statesDuringCall);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(HOST));
+  }
+
+  private static String describe(HttpExchange exchange) throws IOException {
+    return exchange.getRequestMethod() + " " + exchange.getRequestURI().getRawPath() + "?"
+        + exchange.getRequestURI().getRawQuery() + " " + exchange.getRequestHeaders().getFirst("X-Trace") + " "
+        + exchange.getRequestHeaders().getFirst("Content-Type") + " "
+        + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+  }
+
+  private static void respond(HttpExchange exchange, int status) throws IOException {
+    exchange.sendResponseHeaders(status, -1);
+    exchange.close();
+  }
+}
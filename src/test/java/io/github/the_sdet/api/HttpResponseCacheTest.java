@@ -0,0 +1,119 @@
+package io.github.the_sdet.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of {@link HttpResponseCache} against a local HTTP server.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class HttpResponseCacheTest {
+  private HttpServer server;
+  private String baseUri;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/me", exchange -> respond(exchange, "max-age=60", null,
+        String.valueOf(exchange.getRequestHeaders().getFirst("Authorization"))));
+    server.createContext("/tenant", exchange -> respond(exchange, "max-age=60", "X-Tenant",
+        String.valueOf(exchange.getRequestHeaders().getFirst("X-Tenant"))));
+    server.createContext("/blob", exchange -> {
+      byte[] body = new byte[1024];
+      new Random(exchange.getRequestURI().getPath().hashCode()).nextBytes(body);
+      exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+      exchange.close();
+    });
+    server.start();
+    baseUri = "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void responsesAreNotSharedBetweenCredentials() {
+    HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+
+    assertEquals("alice", get(cache, "/me", "Authorization", "alice"));
+    assertEquals("bob", get(cache, "/me", "Authorization", "bob"));
+    assertEquals("alice", get(cache, "/me", "Authorization", "alice"));
+    assertEquals(1, cache.getStatistics("127.0.0.1").getHits());
+  }
+
+  @Test
+  void credentialsAddedByLaterFiltersArePartOfTheKey() {
+    HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+    get(cache, "/me", "Authorization", "alice");
+
+    Filter bobAuth = (requestSpec, responseSpec, context) -> {
+      requestSpec.replaceHeader("Authorization", "bob");
+      return context.next(requestSpec, responseSpec);
+    };
+    String body = RestAssured.given().filter(cache).filter(bobAuth).get(baseUri + "/me").asString();
+
+    assertEquals("bob", body);
+  }
+
+  @Test
+  void varyHeadersMustMatch() {
+    HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+
+    assertEquals("a", get(cache, "/tenant", "X-Tenant", "a"));
+    assertEquals("b", get(cache, "/tenant", "X-Tenant", "b"));
+    assertEquals("b", get(cache, "/tenant", "X-Tenant", "b"));
+    assertEquals(1, cache.getStatistics("127.0.0.1").getHits());
+  }
+
+  @Test
+  void diskTierStaysWithinItsLimit(@TempDir Path diskDir) throws IOException {
+    long maxDiskBytes = 16 * 1024;
+    HttpResponseCache cache = new HttpResponseCache(1024 * 1024, diskDir.toString(), maxDiskBytes);
+
+    for (int i = 0; i < 64; i++) {
+      RestAssured.given().filter(cache).get(baseUri + "/blob/" + i).asByteArray();
+    }
+
+    try (Stream<Path> files = Files.list(diskDir)) {
+      long size = files.mapToLong(file -> file.toFile().length()).sum();
+      assertTrue(size > 0 && size <= maxDiskBytes, "disk tier size " + size);
+    }
+  }
+
+  private String get(HttpResponseCache cache, String path, String header, String value) {
+    return RestAssured.given().filter(cache).header(header, value).get(baseUri + path).asString();
+  }
+
+  private static void respond(HttpExchange exchange, String cacheControl, String vary, String body)
+      throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+    if (vary != null)
+      exchange.getResponseHeaders().add("Vary", vary);
+    exchange.sendResponseHeaders(200, bytes.length);
+    exchange.getResponseBody().write(bytes);
+    exchange.close();
+  }
+}
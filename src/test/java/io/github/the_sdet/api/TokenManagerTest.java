@@ -0,0 +1,145 @@
+package io.github.the_sdet.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of {@link TokenManager}. The refresh test runs on a manual clock and
+ * scheduler, so it does not depend on timing.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class TokenManagerTest {
+
+  @Test
+  void shortLivedTokenIsRefreshedHalfwayThroughItsLifetime() throws InterruptedException {
+    ManualClock clock = new ManualClock(Instant.parse("2024-01-01T00:00:00Z"));
+    ManualScheduler scheduler = new ManualScheduler();
+    AtomicInteger issued = new AtomicInteger();
+    try (TokenManager tokenManager = new TokenManager((credential, scope) -> new TokenManager.Token(
+        "token-" + issued.incrementAndGet(), clock.instant().plus(Duration.ofSeconds(6))), Duration.ofSeconds(60),
+        clock, scheduler)) {
+      assertEquals("token-1", tokenManager.getToken("client", "read"));
+
+      ManualScheduler.Task refresh = scheduler.nextDelayed();
+      assertEquals(Duration.ofSeconds(3), refresh.delay, "refresh not halfway through the lifetime");
+      assertEquals(1, tokenManager.getFetchCount());
+
+      clock.advance(refresh.delay);
+      refresh.run();
+      assertEquals(2, tokenManager.getFetchCount());
+      assertEquals("token-2", tokenManager.getToken("client", "read"));
+      assertEquals(Duration.ofSeconds(3), scheduler.nextDelayed().delay);
+    }
+  }
+
+  @Test
+  void concurrentCallersShareOneFetch() {
+    AtomicInteger issued = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    try (TokenManager tokenManager = new TokenManager((credential, scope) -> {
+      assertTrue(release.await(10, TimeUnit.SECONDS), "fetch was never released");
+      return new TokenManager.Token("token-" + issued.incrementAndGet(), Instant.now().plus(Duration.ofHours(1)));
+    })) {
+      List<CompletableFuture<TokenManager.Token>> callers = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        callers.add(tokenManager.getTokenAsync("client", "read"));
+      }
+      release.countDown();
+      callers.forEach(caller -> assertEquals("token-1", caller.join().value()));
+      assertEquals(1, tokenManager.getFetchCount());
+    }
+  }
+
+  private static final class ManualClock extends Clock {
+    private volatile Instant now;
+
+    private ManualClock(Instant now) {
+      this.now = now;
+    }
+
+    private void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Runs immediate tasks on its thread and holds back delayed ones until the
+   * test runs them
+   */
+  private static final class ManualScheduler extends ScheduledThreadPoolExecutor {
+    private final BlockingQueue<Task> delayed = new LinkedBlockingQueue<>();
+
+    private ManualScheduler() {
+      super(1);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+      if (delay <= 0)
+        return super.schedule(command, delay, unit);
+      Task task = new Task(command, Duration.of(delay, unit.toChronoUnit()));
+      delayed.add(task);
+      return task;
+    }
+
+    private Task nextDelayed() throws InterruptedException {
+      Task task = delayed.poll(10, TimeUnit.SECONDS);
+      assertNotNull(task, "nothing was scheduled");
+      return task;
+    }
+
+    private static final class Task extends FutureTask<Void> implements ScheduledFuture<Void> {
+      private final Duration delay;
+
+      private Task(Runnable command, Duration delay) {
+        super(command, null);
+        this.delay = delay;
+      }
+
+      @Override
+      public long getDelay(TimeUnit unit) {
+        return unit.convert(delay);
+      }
+
+      @Override
+      public int compareTo(Delayed other) {
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+      }
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package io.github.the_sdet.db;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the read and export paths of {@link DatabaseUtils} against
+ * an embedded {@link SyntheticDatabase}.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec}, or pass a JMH
+ * filter and options, e.g.
+ * {@code -Dbenchmark.args="DatabaseUtilsBenchmark -p rows=1000"}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseUtilsBenchmark {
+  private static final String TABLE = "BENCH";
+  private static final String SELECT_ALL = "SELECT * FROM " + TABLE;
+
+  @Param({"1000", "100000"})
+  public int rows;
+
+  @Param({"4"})
+  public int intColumns;
+
+  @Param({"4"})
+  public int textColumns;
+
+  @Param({"32"})
+  public int textLength;
+
+  private SyntheticDatabase database;
+  private DatabaseUtils databaseUtils;
+  private File exportFile;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException, IOException {
+    database = new SyntheticDatabase("bench");
+    database.createTable(TABLE, rows, intColumns, textColumns, textLength);
+    databaseUtils = new DatabaseUtils(database.getConnection());
+    exportFile = Files.createTempFile("db-export", ".tmp").toFile();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    databaseUtils.closeDatabaseConnection();
+    database.close();
+    exportFile.delete();
+  }
+
+  @Benchmark
+  public void readDataFromDb(Blackhole blackhole) {
+    blackhole.consume(databaseUtils.readDataFromDb(SELECT_ALL));
+  }
+
+  @Benchmark
+  public void readDataFromDbWithColumnNames(Blackhole blackhole) {
+    blackhole.consume(databaseUtils.readDataFromDbWithColumnNames(SELECT_ALL));
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String readSingleDataFromDb() {
+    return databaseUtils.readSingleDataFromDb("SELECT TEXT_1 FROM " + TABLE + " WHERE ID = " + (rows / 2));
+  }
+
+  @Benchmark
+  public void readTableInParallel(Blackhole blackhole) {
+    blackhole.consume(databaseUtils.readTableInParallel(database.getDataSource(), TABLE, "ID", 4));
+  }
+
+  @Benchmark
+  public long exportToCsv() throws IOException {
+    return databaseUtils.exportToCsv(SELECT_ALL, exportFile.getPath(), false);
+  }
+
+  @Benchmark
+  public long exportToNdjsonGzip() throws IOException {
+    return databaseUtils.exportToNdjson(SELECT_ALL, exportFile.getPath(), true);
+  }
+
+  @Benchmark
+  public long exportToXlsx() throws IOException {
+    return databaseUtils.exportToXlsx(SELECT_ALL, exportFile.getPath(), "data");
+  }
+}
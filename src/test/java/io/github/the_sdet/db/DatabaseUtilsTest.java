@@ -0,0 +1,77 @@
+package io.github.the_sdet.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the parallel table read of {@link DatabaseUtils} against the
+ * in-memory {@link SyntheticDatabase}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class DatabaseUtilsTest {
+  private static final String TABLE = "SYNTHETIC";
+  private SyntheticDatabase database;
+  private DatabaseUtils databaseUtils;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    database = new SyntheticDatabase("parallel_read");
+    database.createTable(TABLE, 1000, 1, 1, 8);
+    databaseUtils = new DatabaseUtils(database.getConnection());
+  }
+
+  @AfterEach
+  void tearDown() {
+    databaseUtils.executeUpdate("DROP TABLE IF EXISTS EVENTS");
+    databaseUtils.closeDatabaseConnection();
+    database.close();
+  }
+
+  @Test
+  void numericSplitReadsEveryRowInKeyOrder() {
+    List<List<String>> rows = databaseUtils.readTableInParallel(database.getDataSource(), TABLE, "ID", 4);
+
+    assertEquals(1000, rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals(String.valueOf(i + 1), rows.get(i).get(0));
+    }
+  }
+
+  @Test
+  void unsupportedSplitColumnIsRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> databaseUtils.readTableInParallel(database.getDataSource(), TABLE, "TEXT_1", 4));
+  }
+
+  @Test
+  void timestampSplitKeepsSubMillisecondMaxAndNullRows() {
+    databaseUtils.executeUpdate("CREATE TABLE EVENTS (ID INT, AT TIMESTAMP(9))");
+    databaseUtils.executeUpdate("INSERT INTO EVENTS VALUES (1, TIMESTAMP '2024-01-01 00:00:00.000000100'),"
+        + " (2, TIMESTAMP '2024-01-01 00:00:05'), (3, TIMESTAMP '2024-01-01 00:00:10.000000900'),"
+        + " (4, NULL), (5, NULL)");
+
+    List<List<String>> rows = databaseUtils.readTableInParallel(database.getDataSource(), "EVENTS", "AT", 3);
+
+    List<String> ids = new ArrayList<>();
+    rows.forEach(row -> ids.add(row.get(0)));
+    assertEquals(List.of("1", "2", "3", "4", "5"), ids);
+  }
+
+  @Test
+  void consumerReceivesEveryRow() {
+    List<List<String>> rows = new ArrayList<>();
+
+    long count = databaseUtils.readTableInParallel(database.getDataSource(), TABLE, "CREATED_AT", 4, rows::add);
+
+    assertEquals(1000, count);
+    assertEquals(1000, rows.size());
+  }
+}
@@ -0,0 +1,145 @@
+package io.github.the_sdet.db;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Embedded in-memory H2 database which generates synthetic tables of a
+ * configurable size and shape for exercising {@link DatabaseUtils} offline.
+ * Every generated table has a BIGINT primary key {@code ID}, a
+ * {@code CREATED_AT} timestamp, a binary {@code REF} UUID column and the
+ * requested number of integer ({@code INT_n}) and text ({@code TEXT_n})
+ * columns. Data is generated from a fixed seed so runs are comparable.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+public class SyntheticDatabase implements AutoCloseable {
+  private static final int BATCH_SIZE = 1000;
+  private final JdbcConnectionPool pool;
+
+  /**
+   * Creates a new, empty in-memory database
+   *
+   * @param name
+   *            database name, databases with the same name share their data
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public SyntheticDatabase(String name) {
+    pool = JdbcConnectionPool.create("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    pool.setMaxConnections(64);
+  }
+
+  /**
+   * Creates and fills a synthetic table, replacing it if it already exists
+   *
+   * @param table
+   *            table name
+   * @param rows
+   *            number of rows to generate
+   * @param intColumns
+   *            number of INTEGER columns
+   * @param textColumns
+   *            number of VARCHAR columns
+   * @param textLength
+   *            length of every generated text value
+   * @throws SQLException
+   *             if the table could not be created
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public void createTable(String table, int rows, int intColumns, int textColumns, int textLength)
+      throws SQLException {
+    StringBuilder ddl = new StringBuilder("CREATE TABLE ").append(table)
+        .append(" (ID BIGINT PRIMARY KEY, CREATED_AT TIMESTAMP, REF VARBINARY(16)");
+    StringBuilder insert = new StringBuilder("INSERT INTO ").append(table).append(" VALUES (?, ?, ?");
+    for (int i = 1; i <= intColumns; i++) {
+      ddl.append(", INT_").append(i).append(" INTEGER");
+      insert.append(", ?");
+    }
+    for (int i = 1; i <= textColumns; i++) {
+      ddl.append(", TEXT_").append(i).append(" VARCHAR(").append(textLength).append(')');
+      insert.append(", ?");
+    }
+    ddl.append(')');
+    insert.append(')');
+
+    Random random = new Random(42);
+    long epoch = Timestamp.valueOf("2024-01-01 00:00:00").getTime();
+    try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS " + table);
+      statement.execute(ddl.toString());
+      connection.setAutoCommit(false);
+      try (PreparedStatement preparedStatement = connection.prepareStatement(insert.toString())) {
+        for (int row = 1; row <= rows; row++) {
+          int index = 1;
+          preparedStatement.setLong(index++, row);
+          preparedStatement.setTimestamp(index++, new Timestamp(epoch + row * 60_000L));
+          preparedStatement.setObject(index++, new UUID(random.nextLong(), random.nextLong()));
+          for (int i = 0; i < intColumns; i++) {
+            preparedStatement.setInt(index++, random.nextInt(1_000_000));
+          }
+          for (int i = 0; i < textColumns; i++) {
+            preparedStatement.setString(index++, randomText(random, textLength));
+          }
+          preparedStatement.addBatch();
+          if (row % BATCH_SIZE == 0)
+            preparedStatement.executeBatch();
+        }
+        preparedStatement.executeBatch();
+      }
+      connection.commit();
+    }
+  }
+
+  /**
+   * Returns a new connection to the database
+   *
+   * @return JDBC Connection Object
+   * @throws SQLException
+   *             if no connection could be obtained
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public Connection getConnection() throws SQLException {
+    return pool.getConnection();
+  }
+
+  /**
+   * Returns the pooled data source of the database
+   *
+   * @return DataSource object
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public DataSource getDataSource() {
+    return pool;
+  }
+
+  /**
+   * Drops all objects and releases the pooled connections
+   *
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  @Override
+  public void close() {
+    try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("DROP ALL OBJECTS");
+    } catch (SQLException ignored) {
+      // database is discarded anyway
+    }
+    pool.dispose();
+  }
+
+  private static String randomText(Random random, int length) {
+    char[] text = new char[length];
+    for (int i = 0; i < length; i++) {
+      text[i] = (char) ('a' + random.nextInt(26));
+    }
+    return new String(text);
+  }
+}
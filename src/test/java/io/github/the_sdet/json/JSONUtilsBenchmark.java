@@ -0,0 +1,56 @@
+package io.github.the_sdet.json;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing extraction of several JSON paths from a large
+ * document by parsing it per path against parsing it once with
+ * {@link JSONUtils#parse(String)}.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args=JSONUtilsBenchmark}
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JSONUtilsBenchmark {
+  @Param({"1", "10", "40"})
+  public int paths;
+
+  @Param({"20000"})
+  public int items;
+
+  private String json;
+  private String[] elementPaths;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    json = SyntheticJson.orders(items);
+    elementPaths = new String[paths];
+    for (int i = 0; i < paths; i++) {
+      elementPaths[i] = "$.orders[" + (i * items / paths) + "].customer.name";
+    }
+  }
+
+  @Benchmark
+  public List<String> parsePerPath() {
+    List<String> values = new ArrayList<>(paths);
+    for (String elementPath : elementPaths) {
+      values.add(JSONUtils.getElementFromJsonString(json, elementPath));
+    }
+    return values;
+  }
+
+  @Benchmark
+  public List<String> parseOnce() {
+    return JSONUtils.getElementsFromJsonString(json, elementPaths);
+  }
+}
@@ -0,0 +1,100 @@
+package io.github.the_sdet.json;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.the_sdet.json.JacksonSupport.MAPPER;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of {@link JsonDiff}.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+class JsonDiffTest {
+
+  @Test
+  void unorderedNumbersMatchWithinTolerance() {
+    List<JsonDiff.Difference> differences = new JsonDiff().ignoreArrayOrder(true).numericTolerance(0.01)
+        .compare("[1.0, 2.0]", "[2.0001, 1.0001]");
+
+    assertTrue(differences.isEmpty(), differences::toString);
+  }
+
+  @Test
+  void unorderedObjectsMatchWithinTolerance() {
+    List<JsonDiff.Difference> differences = new JsonDiff().ignoreArrayOrder(true).numericTolerance(0.01).compare(
+        "[{\"id\": 1, \"price\": 1.5}, {\"id\": 2, \"price\": 2.5}]",
+        "[{\"id\": 2, \"price\": 2.501}, {\"id\": 1, \"price\": 1.499}]");
+
+    assertTrue(differences.isEmpty(), differences::toString);
+  }
+
+  @Test
+  void unorderedDifferenceOutsideToleranceIsReported() {
+    List<JsonDiff.Difference> differences = new JsonDiff().ignoreArrayOrder(true).numericTolerance(0.01)
+        .compare("[1.0, 2.0]", "[2.0001, 1.5]");
+
+    assertEquals(1, differences.size(), differences::toString);
+    assertEquals(JsonDiff.Type.VALUE_MISMATCH, differences.get(0).type());
+  }
+
+  @Test
+  void equalDocumentsWithDifferentKeyOrderAndNumberFormAreEqual() {
+    List<JsonDiff.Difference> differences = new JsonDiff().compare("{\"a\": 1, \"b\": [true, \"x\"]}",
+        "{\"b\": [true, \"x\"], \"a\": 1.0}");
+
+    assertTrue(differences.isEmpty(), differences::toString);
+  }
+
+  @Test
+  void orderedDifferenceIsReportedAtItsPath() {
+    List<JsonDiff.Difference> differences = new JsonDiff().compare("{\"items\": [{\"id\": 1}, {\"id\": 2}]}",
+        "{\"items\": [{\"id\": 1}, {\"id\": 3}]}");
+
+    assertEquals(List.of(new JsonDiff.Difference(JsonDiff.Type.VALUE_MISMATCH, "$.items[1].id", "2", "3")),
+        differences);
+  }
+
+  @Test
+  @Timeout(value = 10, unit = TimeUnit.SECONDS)
+  void largeUnorderedArraysMatchWithinTolerance() {
+    Random random = new Random(42);
+    ArrayNode expectedNumbers = MAPPER.createArrayNode();
+    ArrayNode expectedObjects = MAPPER.createArrayNode();
+    List<Double> actualNumbers = new ArrayList<>();
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      double value = random.nextInt(1_000_000) / 100.0;
+      expectedNumbers.add(value);
+      actualNumbers.add(value + (random.nextDouble() - 0.5) / 1000);
+      expectedObjects.addObject().put("id", "item-" + i).put("price", value);
+      order.add(i);
+    }
+    Collections.shuffle(actualNumbers, random);
+    Collections.shuffle(order, random);
+    ArrayNode actualObjects = MAPPER.createArrayNode();
+    for (int i : order) {
+      actualObjects.addObject().put("id", "item-" + i).put("price",
+          expectedObjects.get(i).get("price").doubleValue() + 0.0005);
+    }
+    actualNumbers.set(0, -1.0);
+    ArrayNode actual = MAPPER.createArrayNode();
+    actualNumbers.forEach(actual::add);
+
+    JsonDiff diff = new JsonDiff().ignoreArrayOrder(true).numericTolerance(0.001);
+
+    assertTrue(diff.compare(expectedObjects, actualObjects).isEmpty());
+    List<JsonDiff.Difference> differences = diff.compare(expectedNumbers, actual);
+    assertEquals(1, differences.size(), differences::toString);
+    assertEquals("-1.0", differences.get(0).actual());
+  }
+}
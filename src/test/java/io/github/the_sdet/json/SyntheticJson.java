@@ -0,0 +1,51 @@
+package io.github.the_sdet.json;
+
+import java.util.Random;
+
+/**
+ * Generates synthetic JSON documents of a configurable size for exercising
+ * {@link JSONUtils} offline. Data is generated from a fixed seed so runs are
+ * comparable.
+ *
+ * @author Pabitra Swain (contact.the.sdet@gmail.com)
+ */
+public class SyntheticJson {
+  private SyntheticJson() {
+  }
+
+  /**
+   * Generates an order document of roughly 100 bytes per order
+   *
+   * @param orders
+   *            number of orders in the document
+   * @return JSON String of the form {"orders":[{"id":..,"customer":{..},..}]}
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String orders(int orders) {
+    Random random = new Random(42);
+    StringBuilder json = new StringBuilder(orders * 128).append("{\"orders\":[");
+    for (int i = 0; i < orders; i++) {
+      if (i > 0)
+        json.append(',');
+      json.append(order(random, i));
+    }
+    return json.append("]}").toString();
+  }
+
+  /**
+   * Generates a single order object
+   *
+   * @param random
+   *            random source
+   * @param id
+   *            order id
+   * @return JSON String of one order
+   * @author Pabitra Swain (contact.the.sdet@gmail.com)
+   */
+  public static String order(Random random, int id) {
+    return "{\"id\":" + id + ",\"status\":\"" + (random.nextBoolean() ? "OPEN" : "CLOSED")
+        + "\",\"amount\":" + random.nextInt(100_000) / 100.0 + ",\"paid\":" + random.nextBoolean()
+        + ",\"customer\":{\"id\":" + random.nextInt(10_000) + ",\"name\":\"customer-" + random.nextInt(10_000)
+        + "\"},\"tags\":[\"t" + random.nextInt(10) + "\",\"t" + random.nextInt(10) + "\"]}";
+  }
+}